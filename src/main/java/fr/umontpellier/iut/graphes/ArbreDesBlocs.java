@@ -0,0 +1,210 @@
+package fr.umontpellier.iut.graphes;
+
+/**
+ * Décomposition d'un graphe en blocs 2-arête-connexes, reliés entre eux par les isthmes.
+ * <p>
+ * Un bloc est une classe de connexité du graphe privé de ses isthmes : deux sommets d'un même bloc sont
+ * reliés par deux chemins qui n'ont aucune arête en commun. En contractant chaque bloc en un sommet, les
+ * isthmes forment une forêt (l'arbre des blocs de chaque classe de connexité). Un chemin qui n'emprunte
+ * chaque arête qu'une fois traverse chaque isthme au plus une fois : il suit donc une chaîne de cet arbre
+ * et ne visite chaque bloc qu'en un seul morceau.
+ * <p>
+ * Les blocs sont numérotés de 0 à nbBlocs() - 1 dans l'ordre de leur plus petit sommet. Les extrémités
+ * d'isthme d'un bloc (ses portails) sont rangées par ordre croissant du sommet du bloc, puis du sommet
+ * de l'autre côté.
+ */
+public class ArbreDesBlocs {
+    /**
+     * Graphe décomposé, dont les arêtes sont numérotées
+     */
+    private final ListesAretes aretes;
+    /**
+     * estIsthme[e] est vrai si l'arête numéro e est un isthme
+     */
+    private final boolean[] estIsthme;
+    /**
+     * Bloc de chaque sommet, et sommets de chaque bloc
+     */
+    private final IndexConnexite blocs;
+    /**
+     * Les extrémités d'isthme du bloc b occupent les cases debutPonts[b] à debutPonts[b + 1] - 1 des
+     * tableaux pontSommet, pontVoisin et pontArete
+     */
+    private final int[] debutPonts;
+    /**
+     * Sommet du bloc auquel l'isthme est attaché
+     */
+    private final int[] pontSommet;
+    /**
+     * Autre extrémité de l'isthme, dans un bloc voisin
+     */
+    private final int[] pontVoisin;
+    /**
+     * Numéro de l'isthme dans la numérotation des arêtes
+     */
+    private final int[] pontArete;
+
+    /**
+     * Décompose le graphe g
+     *
+     * @param g un graphe
+     */
+    public ArbreDesBlocs(Graphe g) {
+        this(new ListesAretes(g), g.indexIsthmes());
+    }
+
+    /**
+     * Décompose un graphe dont les isthmes sont déjà connus
+     *
+     * @param aretes  le graphe, dont les arêtes sont numérotées
+     * @param isthmes les isthmes de ce graphe
+     */
+    ArbreDesBlocs(ListesAretes aretes, Isthmes isthmes) {
+        this.aretes = aretes;
+        int n = aretes.nbSommets();
+        estIsthme = new boolean[aretes.nbAretes()];
+        for (int u = 0; u < n; u++) {
+            for (int i = aretes.debut[u]; i < aretes.debut[u + 1]; i++) {
+                if (u < aretes.cible[i] && isthmes.estUnIsthme(u, aretes.cible[i])) estIsthme[aretes.arete[i]] = true;
+            }
+        }
+
+        // Étiquetage des blocs par parcours en largeur sans emprunter les isthmes
+        int[] bloc = new int[n];
+        int[] file = new int[n];
+        boolean[] marques = new boolean[n];
+        int nbBlocs = 0;
+        for (int s = 0; s < n; s++) {
+            if (marques[s]) continue;
+            int tete = 0;
+            int queue = 0;
+            file[queue++] = s;
+            marques[s] = true;
+            while (tete < queue) {
+                int x = file[tete++];
+                bloc[x] = nbBlocs;
+                for (int i = aretes.debut[x]; i < aretes.debut[x + 1]; i++) {
+                    int y = aretes.cible[i];
+                    if (!marques[y] && !estIsthme[aretes.arete[i]]) {
+                        marques[y] = true;
+                        file[queue++] = y;
+                    }
+                }
+            }
+            nbBlocs++;
+        }
+        blocs = new IndexConnexite(bloc);
+
+        // Extrémités d'isthme regroupées par bloc (tri par dénombrement, stable par sommet croissant)
+        debutPonts = new int[nbBlocs + 1];
+        int nbPonts = 0;
+        for (int u = 0; u < n; u++) {
+            for (int i = aretes.debut[u]; i < aretes.debut[u + 1]; i++) {
+                if (estIsthme[aretes.arete[i]]) {
+                    debutPonts[bloc[u] + 1]++;
+                    nbPonts++;
+                }
+            }
+        }
+        for (int b = 0; b < nbBlocs; b++) debutPonts[b + 1] += debutPonts[b];
+        pontSommet = new int[nbPonts];
+        pontVoisin = new int[nbPonts];
+        pontArete = new int[nbPonts];
+        int[] position = new int[nbBlocs];
+        System.arraycopy(debutPonts, 0, position, 0, nbBlocs);
+        for (int u = 0; u < n; u++) {
+            for (int i = aretes.debut[u]; i < aretes.debut[u + 1]; i++) {
+                if (estIsthme[aretes.arete[i]]) {
+                    int p = position[bloc[u]]++;
+                    pontSommet[p] = u;
+                    pontVoisin[p] = aretes.cible[i];
+                    pontArete[p] = aretes.arete[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return le nombre de blocs
+     */
+    public int nbBlocs() {
+        return blocs.nbClasses();
+    }
+
+    /**
+     * @param v un entier représentant un sommet
+     * @return le numéro du bloc de v
+     */
+    public int bloc(int v) {
+        return blocs.classe(v);
+    }
+
+    /**
+     * @param b un numéro de bloc
+     * @return le nombre de sommets du bloc b
+     */
+    public int taille(int b) {
+        return blocs.taille(b);
+    }
+
+    /**
+     * @param b un numéro de bloc
+     * @param k un indice compris entre 0 et taille(b) - 1
+     * @return le k-ième sommet du bloc b (par ordre croissant)
+     */
+    public int sommet(int b, int k) {
+        return blocs.sommet(b, k);
+    }
+
+    /**
+     * @param b un numéro de bloc
+     * @return le nombre d'isthmes qui touchent le bloc b (son degré dans l'arbre des blocs)
+     */
+    public int nbPonts(int b) {
+        return debutPonts[b + 1] - debutPonts[b];
+    }
+
+    /**
+     * @param b un numéro de bloc
+     * @param k un indice compris entre 0 et nbPonts(b) - 1
+     * @return l'extrémité dans le bloc b de son k-ième isthme
+     */
+    public int pontSommet(int b, int k) {
+        return pontSommet[debutPonts[b] + k];
+    }
+
+    /**
+     * @param b un numéro de bloc
+     * @param k un indice compris entre 0 et nbPonts(b) - 1
+     * @return l'extrémité hors du bloc b de son k-ième isthme
+     */
+    public int pontVoisin(int b, int k) {
+        return pontVoisin[debutPonts[b] + k];
+    }
+
+    /**
+     * @param b un numéro de bloc
+     * @param k un indice compris entre 0 et nbPonts(b) - 1
+     * @return la longueur du k-ième isthme du bloc b
+     */
+    public int pontLongueur(int b, int k) {
+        return aretes.poids[pontArete[debutPonts[b] + k]];
+    }
+
+    /**
+     * @param b un numéro de bloc
+     * @param k un indice compris entre 0 et nbPonts(b) - 1
+     * @return le numéro du k-ième isthme du bloc b dans la numérotation des arêtes
+     */
+    int pontArete(int b, int k) {
+        return pontArete[debutPonts[b] + k];
+    }
+
+    /**
+     * @param e un numéro d'arête
+     * @return vrai si l'arête e est un isthme
+     */
+    boolean estIsthme(int e) {
+        return estIsthme[e];
+    }
+}
@@ -0,0 +1,155 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache des plus longs chemins des derniers graphes interrogés, pour les clients qui posent souvent la même
+ * question sur des graphes égaux (Graphe.plusLongChemin() ne passe pas par un cache : chaque client crée le
+ * sien, avec les bornes qui lui conviennent).
+ * <p>
+ * Les graphes sont retrouvés par leur empreinte (Graphe.hashCode) puis comparés arête par arête
+ * (Graphe.equals) : le cache garde donc une copie de chaque graphe, qui ne sera plus modifiée. Lorsque le
+ * cache est plein, les graphes les moins récemment interrogés sont oubliés en premier. Le cache est borné
+ * à la fois en nombre de graphes et en taille totale (sommets + arêtes) des copies conservées ; un graphe
+ * trop grand n'est jamais conservé.
+ * <p>
+ * Les classes de connexité ne passent pas par le cache, volontairement : Graphe.indexConnexite() est déjà
+ * mémorisé dans chaque graphe jusqu'à sa prochaine modification, et le calculer ne coûte qu'un parcours
+ * en O(n + m), soit autant que la comparaison arête par arête qu'exige une recherche dans le cache. Seul le
+ * plus long chemin, exponentiel dans le pire des cas, vaut la copie du graphe.
+ * <p>
+ * Un graphe passé en argument ne doit pas être modifié pendant l'appel : son empreinte et son égalité avec
+ * les graphes conservés changent avec ses arêtes, et il serait cherché sous une autre clé que celle qui
+ * lui correspond. Les copies conservées par le cache ne sont, elles, jamais modifiées.
+ * <p>
+ * Le cache peut être partagé entre plusieurs fils d'exécution. Les calculs se font hors verrou : deux
+ * fils qui interrogent le même graphe en même temps peuvent tous deux faire le calcul.
+ */
+public class CacheResultats {
+    /**
+     * Résultats connus pour chaque graphe, du moins récemment au plus récemment interrogé
+     */
+    private final LinkedHashMap<Graphe, Entree> entrees = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Nombre maximal de graphes conservés
+     */
+    private final int capacite;
+    /**
+     * Taille totale (sommets + arêtes) maximale des graphes conservés
+     */
+    private final long tailleMax;
+    /**
+     * Taille totale des graphes conservés
+     */
+    private long taille;
+    /**
+     * Nombre de résultats trouvés dans le cache
+     */
+    private long nbSucces;
+    /**
+     * Nombre de résultats qu'il a fallu calculer
+     */
+    private long nbEchecs;
+
+    /**
+     * @param capacite  le nombre maximal de graphes conservés
+     * @param tailleMax la taille totale (sommets + arêtes) maximale des graphes conservés
+     */
+    public CacheResultats(int capacite, long tailleMax) {
+        this.capacite = capacite;
+        this.tailleMax = tailleMax;
+    }
+
+    /**
+     * @param g un graphe
+     * @return un plus long chemin de g, le même que g.plusLongChemin() (la liste renvoyée peut être modifiée)
+     */
+    public ArrayList<Integer> plusLongChemin(Graphe g) {
+        ArrayList<Integer> chemin;
+        synchronized (this) {
+            Entree e = entrees.get(g);
+            chemin = e == null ? null : e.plusLongChemin;
+            compter(chemin != null);
+        }
+        if (chemin == null) {
+            chemin = new RecherchePlusLongChemin(g).calculer();
+            synchronized (this) {
+                Entree e = entree(g);
+                if (e != null) e.plusLongChemin = chemin;
+            }
+        }
+        return new ArrayList<>(chemin);
+    }
+
+    /**
+     * @return le nombre de résultats trouvés dans le cache depuis sa création ou le dernier appel à vider()
+     */
+    public synchronized long nbSucces() {
+        return nbSucces;
+    }
+
+    /**
+     * @return le nombre de résultats qu'il a fallu calculer depuis sa création ou le dernier appel à vider()
+     */
+    public synchronized long nbEchecs() {
+        return nbEchecs;
+    }
+
+    /**
+     * @return le nombre de graphes conservés
+     */
+    public synchronized int nbGraphes() {
+        return entrees.size();
+    }
+
+    /**
+     * Oublie tous les graphes conservés et remet les compteurs à zéro
+     */
+    public synchronized void vider() {
+        entrees.clear();
+        taille = 0;
+        nbSucces = 0;
+        nbEchecs = 0;
+    }
+
+    private void compter(boolean succes) {
+        if (succes) nbSucces++;
+        else nbEchecs++;
+    }
+
+    /**
+     * Renvoie l'entrée de g, en conservant une copie de g si nécessaire et en oubliant les graphes les
+     * moins récemment interrogés pour respecter les bornes du cache
+     *
+     * @return l'entrée de g, null si g est trop grand pour être conservé
+     */
+    private Entree entree(Graphe g) {
+        Entree e = entrees.get(g);
+        if (e != null) return e;
+        long t = tailleDe(g);
+        if (t > tailleMax || capacite == 0) return null;
+        Iterator<Map.Entry<Graphe, Entree>> anciennes = entrees.entrySet().iterator();
+        while (entrees.size() >= capacite || taille + t > tailleMax) {
+            taille -= tailleDe(anciennes.next().getKey());
+            anciennes.remove();
+        }
+        e = new Entree();
+        entrees.put(Graphe.copie(g), e);
+        taille += t;
+        return e;
+    }
+
+    private static long tailleDe(Graphe g) {
+        return (long) g.nbSommets() + g.nbAretes();
+    }
+
+    /**
+     * Résultat déjà calculé pour un graphe (null s'il ne l'a pas encore été)
+     */
+    private static class Entree {
+        private ArrayList<Integer> plusLongChemin;
+    }
+}
@@ -0,0 +1,93 @@
+package fr.umontpellier.iut.graphes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Enregistrement des graphes dans un format binaire compact, rechargé sans recopie par projection du
+ * fichier en mémoire.
+ * <p>
+ * Le fichier contient des entiers de 32 bits petit-boutistes : le nombre magique 0x47525048 (« GRPH »), la
+ * version du format, puis le graphe au format de GrapheHorsTas (nombre de sommets, nombre d'arêtes, débuts
+ * de liste, voisins et longueurs).
+ */
+public class FichierGraphe {
+    /**
+     * Premier entier de tout fichier de graphe
+     */
+    private static final int MAGIQUE = 0x47525048;
+    /**
+     * Version du format
+     */
+    private static final int VERSION = 1;
+    /**
+     * Taille de l'en-tête du fichier (nombre magique et version) en octets
+     */
+    private static final int EN_TETE = 2 * Integer.BYTES;
+
+    private FichierGraphe() {
+    }
+
+    /**
+     * Enregistre le graphe g dans le fichier (remplacé s'il existe)
+     *
+     * @param g       un graphe
+     * @param fichier le chemin du fichier
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public static void ecrire(Graphe g, Path fichier) throws IOException {
+        int taille = EN_TETE + GrapheHorsTas.taille(g);
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_WRITE, 0, taille);
+            tampon.order(ByteOrder.LITTLE_ENDIAN).putInt(MAGIQUE).putInt(VERSION);
+            GrapheHorsTas.encoder(g, tampon);
+            tampon.force();
+        }
+    }
+
+    /**
+     * Charge un graphe enregistré par ecrire, en vérifiant tout son contenu (voir charger(fichier, verifier))
+     *
+     * @param fichier le chemin du fichier
+     * @return le graphe enregistré dans le fichier
+     * @throws IOException si le fichier ne peut pas être lu ou n'est pas un graphe enregistré par ecrire
+     */
+    public static GrapheHorsTas charger(Path fichier) throws IOException {
+        return charger(fichier, true);
+    }
+
+    /**
+     * Charge un graphe enregistré par ecrire. Le fichier est projeté en mémoire sans être recopié, et le
+     * graphe obtenu est en lecture seule (Graphe.copie en donne une version modifiable). Sans vérification,
+     * seul l'en-tête est lu au chargement, qui se fait en temps constant : les pages ne sont lues qu'à la
+     * demande, et les index (classes de connexité, compteurs) ne sont calculés qu'à leur première
+     * utilisation. La vérification parcourt tout le fichier en O(m log d) ; elle ne peut être omise que pour
+     * un fichier sûr, écrit par ecrire.
+     *
+     * @param fichier  le chemin du fichier
+     * @param verifier vrai pour vérifier tout le contenu du fichier (voir GrapheHorsTas.verifier)
+     * @return le graphe enregistré dans le fichier
+     * @throws IOException si le fichier ne peut pas être lu ou n'est pas un graphe enregistré par ecrire
+     */
+    public static GrapheHorsTas charger(Path fichier, boolean verifier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            if (canal.size() < EN_TETE || canal.size() > Integer.MAX_VALUE) throw new IOException("Taille de fichier invalide : " + fichier);
+            ByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (tampon.getInt() != MAGIQUE) throw new IOException("Ce fichier ne contient pas un graphe : " + fichier);
+            int version = tampon.getInt();
+            if (version != VERSION) throw new IOException("Version " + version + " du format non prise en charge : " + fichier);
+            try {
+                GrapheHorsTas g = new GrapheHorsTas(tampon);
+                return verifier ? g.verifier() : g;
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IOException("Fichier de graphe corrompu : " + fichier, e);
+            }
+        }
+    }
+}
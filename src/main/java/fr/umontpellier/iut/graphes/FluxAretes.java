@@ -0,0 +1,399 @@
+package fr.umontpellier.iut.graphes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Import et export de graphes sous forme de listes d'arêtes textuelles, en flux : les données passent par
+ * un tampon de taille fixe, si bien que la mémoire utilisée (en plus du graphe lui-même) ne dépend pas de
+ * la taille du graphe.
+ * <p>
+ * Chaque arête occupe une ligne « u,v,longueur » (CSV), « u v longueur » séparés par des tabulations
+ * (TSV) ou « u -- v [weight=longueur]; » (DOT, dans un bloc « graph { ... } »). L'export commence par un
+ * commentaire « sommets: n » (# en CSV et TSV, // en DOT) qui conserve les sommets isolés ; les autres
+ * commentaires sont ignorés.
+ * <p>
+ * À l'import en CSV et TSV, une ligne est une arête si elle a deux ou trois champs qui sont tous des
+ * entiers positifs (une longueur absente vaut 1). Une ligne dont aucun champ n'est un nombre (en-tête de
+ * colonnes comme « node1,node2,weight ») est ignorée. En DOT, seules les lignes qui contiennent l'opérateur
+ * « -- » ou « -> » (hors guillemets et crochets) sont des arêtes : leurs deux extrémités sont des entiers,
+ * éventuellement entre guillemets, et la longueur est l'attribut weight (1 s'il est absent) ; les autres
+ * attributs sont ignorés. Toute autre ligne, et en particulier un nombre négatif ou non entier là où un
+ * entier est attendu, provoque une IOException qui indique le numéro de la ligne.
+ */
+public class FluxAretes {
+    /**
+     * Taille du tampon d'entrée-sortie en octets
+     */
+    private static final int TAILLE_TAMPON = 1 << 16;
+
+    /**
+     * Formats de liste d'arêtes pris en charge
+     */
+    public enum Format {
+        CSV, TSV, DOT
+    }
+
+    private FluxAretes() {
+    }
+
+    /**
+     * Enregistre les arêtes du graphe g dans le fichier (remplacé s'il existe)
+     *
+     * @param g       un graphe
+     * @param fichier le chemin du fichier
+     * @param format  le format du fichier
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public static void exporter(Graphe g, Path fichier, Format format) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            exporter(g, canal, format);
+        }
+    }
+
+    /**
+     * Écrit les arêtes du graphe g dans le canal, chacune une seule fois (u < v), par ordre croissant
+     *
+     * @param g      un graphe
+     * @param canal  le canal où écrire (il n'est pas fermé)
+     * @param format le format d'écriture
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void exporter(Graphe g, WritableByteChannel canal, Format format) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(TAILLE_TAMPON);
+        if (format == Format.DOT) texte(tampon, "graph {\n// sommets: ");
+        else texte(tampon, "# sommets: ");
+        entier(tampon, g.nbSommets());
+        tampon.put((byte) '\n');
+        char separateur = format == Format.CSV ? ',' : '\t';
+        for (int u = 0; u < g.nbSommets(); u++) {
+            for (int k = 0; k < g.degre(u); k++) {
+                int v = g.voisin(u, k);
+                if (v < u) continue;
+                if (tampon.remaining() < 64) vider(tampon, canal);
+                if (format == Format.DOT) {
+                    texte(tampon, "  ");
+                    entier(tampon, u);
+                    texte(tampon, " -- ");
+                    entier(tampon, v);
+                    texte(tampon, " [weight=");
+                    entier(tampon, g.poidsVoisin(u, k));
+                    texte(tampon, "];");
+                } else {
+                    entier(tampon, u);
+                    tampon.put((byte) separateur);
+                    entier(tampon, v);
+                    tampon.put((byte) separateur);
+                    entier(tampon, g.poidsVoisin(u, k));
+                }
+                tampon.put((byte) '\n');
+            }
+        }
+        if (format == Format.DOT) texte(tampon, "}\n");
+        vider(tampon, canal);
+    }
+
+    /**
+     * Construit un graphe à partir d'un fichier de liste d'arêtes. Le fichier est lu deux fois : une
+     * première pour déterminer le nombre de sommets (indiqué par le commentaire « sommets: n », sinon le
+     * plus grand sommet rencontré plus un), une seconde pour ajouter les arêtes.
+     *
+     * @param fichier le chemin du fichier
+     * @param format  le format du fichier
+     * @return le graphe décrit par le fichier
+     * @throws IOException si le fichier ne peut pas être lu ou contient une ligne ou une arête invalide
+     */
+    public static Graphe importer(Path fichier, Format format) throws IOException {
+        int n = 0;
+        int[] arete = new int[3];
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            Lecteur lecteur = new Lecteur(canal);
+            while (lecteur.ligneSuivante()) {
+                int annonce = lecteur.nbSommetsAnnonce();
+                if (annonce >= 0) n = Math.max(n, annonce);
+                else if (lecteur.arete(format, arete)) n = Math.max(n, Math.max(arete[0], arete[1]) + 1);
+            }
+        }
+        Graphe g = new Graphe(n);
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            importer(g, canal, format);
+        }
+        return g;
+    }
+
+    /**
+     * Ajoute au graphe g les arêtes lues dans le canal
+     *
+     * @param g      un graphe qui a assez de sommets pour toutes les arêtes lues
+     * @param canal  le canal où lire (il n'est pas fermé)
+     * @param format le format de lecture
+     * @throws IOException en cas d'erreur de lecture ou si une ligne ou une arête est invalide
+     */
+    public static void importer(Graphe g, ReadableByteChannel canal, Format format) throws IOException {
+        Lecteur lecteur = new Lecteur(canal);
+        int[] arete = new int[3];
+        while (lecteur.ligneSuivante()) {
+            if (!lecteur.arete(format, arete)) continue;
+            int u = arete[0];
+            int v = arete[1];
+            int longueur = arete[2];
+            if (u >= g.nbSommets() || v >= g.nbSommets() || u == v || longueur <= 0) {
+                throw new IOException("Arête invalide ligne " + lecteur.numeroLigne + " : " + u + " - " + v + " (" + longueur + ")");
+            }
+            g.ajouterArete(u, v, longueur);
+        }
+    }
+
+    private static void texte(ByteBuffer tampon, String s) {
+        for (int i = 0; i < s.length(); i++) tampon.put((byte) s.charAt(i));
+    }
+
+    /**
+     * Écrit l'entier positif x en décimal
+     */
+    private static void entier(ByteBuffer tampon, int x) {
+        int chiffres = 1;
+        for (int p = x; p >= 10; p /= 10) chiffres++;
+        int fin = tampon.position() + chiffres;
+        for (int i = fin - 1; i >= tampon.position(); i--, x /= 10) tampon.put(i, (byte) ('0' + x % 10));
+        tampon.position(fin);
+    }
+
+    private static void vider(ByteBuffer tampon, WritableByteChannel canal) throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) canal.write(tampon);
+        tampon.clear();
+    }
+
+    /**
+     * Découpe un flux d'octets en lignes et reconnaît les arêtes et le nombre de sommets annoncé
+     */
+    private static class Lecteur {
+        /**
+         * Longueur maximale d'une ligne en octets
+         */
+        private static final int LONGUEUR_MAX = 1 << 20;
+        /**
+         * Valeur de entier() pour un champ qui n'est pas un nombre
+         */
+        private static final int TEXTE = -1;
+
+        private final ReadableByteChannel canal;
+        private final ByteBuffer tampon = ByteBuffer.allocate(TAILLE_TAMPON);
+        private boolean finDuFlux;
+        /**
+         * Octets de la ligne courante (les longueur premiers, sans fin de ligne)
+         */
+        private byte[] ligne = new byte[256];
+        private int longueur;
+        private int numeroLigne;
+
+        private Lecteur(ReadableByteChannel canal) {
+            this.canal = canal;
+            tampon.flip();
+        }
+
+        /**
+         * @return le prochain octet du flux, -1 à la fin
+         */
+        private int octet() throws IOException {
+            while (!tampon.hasRemaining()) {
+                if (finDuFlux) return -1;
+                tampon.clear();
+                finDuFlux = canal.read(tampon) < 0;
+                tampon.flip();
+            }
+            return tampon.get();
+        }
+
+        /**
+         * Lit la ligne suivante
+         *
+         * @return faux s'il n'y a plus de ligne
+         */
+        private boolean ligneSuivante() throws IOException {
+            int c = octet();
+            if (c < 0) return false;
+            numeroLigne++;
+            longueur = 0;
+            for (; c >= 0 && c != '\n'; c = octet()) {
+                if (c == '\r') continue;
+                if (longueur == ligne.length) {
+                    if (longueur == LONGUEUR_MAX) throw erreur("Ligne trop longue");
+                    ligne = Arrays.copyOf(ligne, 2 * longueur);
+                }
+                ligne[longueur++] = (byte) c;
+            }
+            return true;
+        }
+
+        private IOException erreur(String message) {
+            return new IOException(message + " ligne " + numeroLigne);
+        }
+
+        private static boolean blanc(int c) {
+            return c == ' ' || c == '\t';
+        }
+
+        /**
+         * @return la position du premier caractère non blanc de la ligne à partir de debut
+         */
+        private int sauterBlancs(int debut) {
+            while (debut < longueur && blanc(ligne[debut])) debut++;
+            return debut;
+        }
+
+        /**
+         * @return la position qui suit le préfixe de commentaire (# ou //) de la ligne, -1 si elle n'en
+         * commence pas par un
+         */
+        private int apresCommentaire() {
+            int p = sauterBlancs(0);
+            if (p < longueur && ligne[p] == '#') return p + 1;
+            if (p + 1 < longueur && ligne[p] == '/' && ligne[p + 1] == '/') return p + 2;
+            return -1;
+        }
+
+        /**
+         * @return n si la ligne est le commentaire « sommets: n » écrit par exporter, -1 sinon
+         */
+        private int nbSommetsAnnonce() throws IOException {
+            int p = apresCommentaire();
+            if (p < 0) return -1;
+            p = sauterBlancs(p);
+            String cle = "sommets:";
+            if (longueur - p < cle.length()) return -1;
+            for (int k = 0; k < cle.length(); k++) {
+                if (ligne[p + k] != cle.charAt(k)) return -1;
+            }
+            return entier(p + cle.length(), longueur);
+        }
+
+        /**
+         * Lit le champ de la ligne compris entre debut et fin, sans tenir compte des blancs et des
+         * guillemets qui l'entourent
+         *
+         * @return la valeur du champ s'il est un entier positif, TEXTE s'il n'est pas un nombre
+         * @throws IOException si le champ est un nombre négatif, non entier ou trop grand
+         */
+        private int entier(int debut, int fin) throws IOException {
+            debut = sauterBlancs(debut);
+            while (fin > debut && blanc(ligne[fin - 1])) fin--;
+            if (fin - debut >= 2 && ligne[debut] == '"' && ligne[fin - 1] == '"') {
+                debut++;
+                fin--;
+            }
+            boolean chiffres = false;
+            boolean entier = true;
+            for (int p = debut; p < fin; p++) {
+                int c = ligne[p];
+                if (c >= '0' && c <= '9') chiffres = true;
+                else if (c == '-' || c == '+' || c == '.') entier = false;
+                else return TEXTE;
+            }
+            if (!chiffres) return TEXTE;
+            if (!entier) throw erreur("Nombre négatif ou non entier");
+            long valeur = 0;
+            for (int p = debut; p < fin; p++) {
+                valeur = valeur * 10 + ligne[p] - '0';
+                if (valeur > Integer.MAX_VALUE) throw erreur("Entier trop grand");
+            }
+            return (int) valeur;
+        }
+
+        /**
+         * Reconnaît une arête dans la ligne courante
+         *
+         * @param arete reçoit les deux extrémités et la longueur de l'arête
+         * @return vrai si la ligne est une arête, faux si elle doit être ignorée
+         * @throws IOException si la ligne n'est ni une arête valide ni une ligne à ignorer
+         */
+        private boolean arete(Format format, int[] arete) throws IOException {
+            if (apresCommentaire() >= 0) return false;
+            return format == Format.DOT ? areteDot(arete) : areteTableau(format == Format.CSV ? ',' : '\t', arete);
+        }
+
+        private boolean areteTableau(char separateur, int[] arete) throws IOException {
+            if (sauterBlancs(0) == longueur) return false;
+            int nbChamps = 0;
+            int nbTextes = 0;
+            for (int debut = 0; debut <= longueur; nbChamps++) {
+                int fin = debut;
+                while (fin < longueur && ligne[fin] != separateur) fin++;
+                int valeur = entier(debut, fin);
+                if (valeur == TEXTE) nbTextes++;
+                else if (nbChamps < arete.length) arete[nbChamps] = valeur;
+                debut = fin + 1;
+            }
+            if (nbTextes == nbChamps) return false; // en-tête de colonnes
+            if (nbTextes > 0 || nbChamps < 2 || nbChamps > 3) throw erreur("Ligne qui n'est pas une arête « u" + separateur + "v" + separateur + "longueur »");
+            if (nbChamps == 2) arete[2] = 1;
+            return true;
+        }
+
+        private boolean areteDot(int[] arete) throws IOException {
+            // opérateur d'arête et début des attributs, hors guillemets
+            int operateur = -1;
+            int fin = longueur;
+            boolean guillemets = false;
+            for (int p = 0; p < longueur; p++) {
+                int c = ligne[p];
+                if (c == '"') guillemets = !guillemets;
+                if (guillemets) continue;
+                if (c == '[' || c == ';') {
+                    fin = p;
+                    break;
+                }
+                if (operateur < 0 && c == '-' && p + 1 < longueur && (ligne[p + 1] == '-' || ligne[p + 1] == '>')) operateur = p;
+            }
+            if (operateur < 0) return false;
+            arete[0] = entier(0, operateur);
+            arete[1] = entier(operateur + 2, fin);
+            if (arete[0] == TEXTE || arete[1] == TEXTE) throw erreur("Extrémité d'arête qui n'est pas un entier");
+            arete[2] = poidsDot(fin);
+            return true;
+        }
+
+        /**
+         * @return la valeur de l'attribut weight dans la liste d'attributs qui commence en debut, 1 s'il n'y
+         * en a pas
+         */
+        private int poidsDot(int debut) throws IOException {
+            if (debut >= longueur || ligne[debut] != '[') return 1;
+            boolean guillemets = false;
+            for (int p = debut + 1; p < longueur && (guillemets || ligne[p] != ']'); p++) {
+                if (ligne[p] == '"') guillemets = !guillemets;
+                if (guillemets || !motEn(p, "weight")) continue;
+                int q = sauterBlancs(p + 6);
+                if (q >= longueur || ligne[q] != '=') continue;
+                int fin = q + 1;
+                boolean dansValeur = false;
+                while (fin < longueur && (dansValeur || (ligne[fin] != ',' && ligne[fin] != ']' && ligne[fin] != ';'))) {
+                    if (ligne[fin] == '"') dansValeur = !dansValeur;
+                    fin++;
+                }
+                int poids = entier(q + 1, fin);
+                if (poids == TEXTE) throw erreur("Attribut weight qui n'est pas un entier");
+                return poids;
+            }
+            return 1;
+        }
+
+        /**
+         * @return vrai si le mot commence en p et n'est pas une partie d'un mot plus long
+         */
+        private boolean motEn(int p, String mot) {
+            if (p + mot.length() > longueur || (p > 0 && Character.isLetterOrDigit(ligne[p - 1]))) return false;
+            for (int k = 0; k < mot.length(); k++) {
+                if (ligne[p + k] != mot.charAt(k)) return false;
+            }
+            return p + mot.length() == longueur || !Character.isLetterOrDigit(ligne[p + mot.length()]);
+        }
+    }
+}
@@ -1,14 +1,110 @@
 package fr.umontpellier.iut.graphes;
 
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
+/**
+ * Graphe non orienté valué, sans boucle, dont les sommets sont les entiers de 0 à n - 1.
+ * <p>
+ * Par défaut les arêtes sont rangées dans des listes d'adjacence triées. Une sous-classe peut choisir
+ * une autre représentation : elle appelle le constructeur protégé Graphe(n, false) et redéfinit les
+ * méthodes d'accès (degre, voisin, poidsVoisin, existeArete, poidsArete) ainsi que inscrireArete et
+ * effacerArete. Tous les algorithmes de la classe passent par ces méthodes et fonctionnent donc quelle
+ * que soit la représentation.
+ */
 public class Graphe {
     /**
-     * matrice d'adjacence du graphe, un entier supérieur à 0 représentant la distance entre deux sommets
-     * mat[i][i] = 0 pour tout i parce que le graphe n'a pas de boucle
+     * Tableau partagé par tous les sommets qui n'ont encore aucun voisin
      */
-    private final int[][] mat;
+    private static final int[] VIDE = new int[0];
+    /**
+     * Nombre maximal de sommets pour lequel toString affiche la matrice d'adjacence
+     */
+    private static final int TAILLE_MAX_MATRICE = 500;
+
+    /**
+     * Nombre de sommets du graphe
+     */
+    private final int ordre;
+    /**
+     * Listes d'adjacence du graphe : les degres[v] premières cases de adjacence[v] contiennent les voisins
+     * de v par ordre croissant. Le graphe n'a pas de boucle, v n'apparaît donc jamais dans adjacence[v]
+     * (null si une sous-classe stocke elle-même les arêtes)
+     */
+    private final int[][] adjacence;
+    /**
+     * longueurs[v][k] est la distance (entier supérieur à 0) entre v et son voisin adjacence[v][k]
+     */
+    private final int[][] longueurs;
+    /**
+     * Nombre de voisins de chaque sommet
+     */
+    private final int[] degres;
+    /**
+     * Index des classes de connexité, calculé à la demande et oublié dès que le graphe est modifié
+     */
+    private IndexConnexite connexite;
+    /**
+     * Classes de connexité maintenues au fil des ajouts d'arêtes. Une suppression ne pouvant pas être
+     * répercutée, la structure est alors oubliée puis reconstruite à la demande
+     */
+    private UnionFind unionFind;
+    /**
+     * Isthmes du graphe, calculés à la demande et oubliés dès que le graphe est modifié
+     */
+    private Isthmes isthmes;
+    /**
+     * Nombre d'arêtes du graphe
+     */
+    private int nbAretes;
+    /**
+     * Nombre de sommets de degré impair
+     */
+    private int nbImpairs;
+    /**
+     * Nombre de sommets de degré 0
+     */
+    private int nbIsoles;
+    /**
+     * Empreinte de l'ensemble des arêtes : somme, modulo 2^64, de melange(i, j) * longueur sur toutes les
+     * arêtes (i, j). Deux graphes égaux ont la même empreinte, qui est mise à jour en temps constant à
+     * chaque modification
+     */
+    private long empreinte;
+    /**
+     * Vrai si les compteurs et l'empreinte doivent être recalculés à leur première lecture (voir
+     * recompterALaDemande)
+     */
+    private volatile boolean compteursPerimes;
+    /**
+     * Journal des modifications faites depuis la plus ancienne marque encore ouverte, par triplets
+     * (i, j, longueur de l'arête avant la modification, 0 si elle n'existait pas)
+     */
+    private int[] journal = VIDE;
+    /**
+     * Nombre de cases utilisées dans le journal
+     */
+    private int tailleJournal;
+    /**
+     * Nombre de marques ouvertes (le journal n'est tenu que s'il y en a au moins une)
+     */
+    private int nbMarques;
+    /**
+     * Pile des marques ouvertes : identifiant de chaque marque, de la plus ancienne à la plus récente
+     */
+    private int[] marques = VIDE;
+    /**
+     * Position dans le journal de chaque marque ouverte
+     */
+    private int[] positionsMarques = VIDE;
+    /**
+     * Dernier identifiant de marque attribué, tous graphes confondus : une marque refermée ou posée sur un
+     * autre graphe ne peut donc pas être confondue avec une marque ouverte
+     */
+    private static final AtomicInteger DERNIERE_MARQUE = new AtomicInteger();
 
     /**
      * Construit un graphe à n sommets
@@ -16,21 +112,56 @@ public class Graphe {
      * @param n le nombre de sommets du graphe
      */
     public Graphe(int n) {
-        mat = new int[n][n];
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                mat[i][j] = 0;
-            }
+        this(n, true);
+    }
+
+    /**
+     * Construit un graphe à n sommets sans arête
+     *
+     * @param n               le nombre de sommets du graphe
+     * @param listesAdjacence faux si les arêtes sont stockées par la sous-classe (les listes d'adjacence ne
+     *                        sont alors pas allouées)
+     */
+    protected Graphe(int n, boolean listesAdjacence) {
+        ordre = n;
+        if (listesAdjacence) {
+            adjacence = new int[n][];
+            longueurs = new int[n][];
+            degres = new int[n];
+            Arrays.fill(adjacence, VIDE);
+            Arrays.fill(longueurs, VIDE);
+        } else {
+            adjacence = null;
+            longueurs = null;
+            degres = null;
         }
+        nbIsoles = n;
     }
 
+    /**
+     * @param g un graphe
+     * @return une copie de g, représentée par des listes d'adjacence
+     */
     public static Graphe copie(Graphe g) {
-        Graphe copieG = new Graphe(g.mat.length);
-        for(int i = 0; i < g.mat.length; i++) {
-            for (int j = 0; j < g.mat.length; j++) {
-                if (g.mat[i][j] > 0) copieG.ajouterArete(i, j, g.mat[i][j]);
+        Graphe copieG = new Graphe(g.nbSommets());
+        for (int i = 0; i < g.nbSommets(); i++) {
+            int d = g.degre(i);
+            if (d > 0) {
+                copieG.adjacence[i] = new int[d];
+                copieG.longueurs[i] = new int[d];
+                for (int k = 0; k < d; k++) {
+                    copieG.adjacence[i][k] = g.voisin(i, k);
+                    copieG.longueurs[i][k] = g.poidsVoisin(i, k);
+                }
+                copieG.degres[i] = d;
             }
         }
+        g.compteurs();
+        copieG.unionFind = g.unionFind == null ? null : new UnionFind(g.unionFind);
+        copieG.nbAretes = g.nbAretes;
+        copieG.nbImpairs = g.nbImpairs;
+        copieG.nbIsoles = g.nbIsoles;
+        copieG.empreinte = g.empreinte;
         return copieG;
     }
 
@@ -38,7 +169,16 @@ public class Graphe {
      * @return le nombre de sommets
      */
     public int nbSommets() {
-        return mat.length;
+        return ordre;
+    }
+
+    /**
+     * Recherche dichotomique de j dans la liste d'adjacence de i
+     *
+     * @return la position de j dans adjacence[i] si j est voisin de i, sinon (-(position d'insertion) - 1)
+     */
+    private int position(int i, int j) {
+        return Arrays.binarySearch(adjacence[i], 0, degres[i], j);
     }
 
     /**
@@ -48,8 +188,14 @@ public class Graphe {
      * @param j un autre entier représentant un sommet
      */
     public void supprimerArete(int i, int j) {
-        mat[i][j] = 0;
-        mat[j][i] = 0;
+        int ancienne = poidsArete(i, j);
+        if (effacerArete(i, j)) {
+            compter(i, j, -1);
+            retoucher(i, j, ancienne, 0);
+            oublierIndex();
+            unionFind = null;
+            if (nbMarques > 0) journaliser(i, j, ancienne);
+        }
     }
 
     /**
@@ -58,54 +204,406 @@ public class Graphe {
      * @param k la distance entre i et j (k>0)
      */
     public void ajouterArete(int i, int j, int k) {
-        mat[i][j] = k;
-        mat[j][i] = k;
+        if (i == j || k <= 0) throw new IllegalArgumentException("Arête invalide : " + i + " - " + j + " (" + k + ")");
+        int ancienne = poidsArete(i, j);
+        if (inscrireArete(i, j, k)) {
+            compter(i, j, 1);
+            oublierIndex();
+            if (unionFind != null) unionFind.unir(i, j);
+        }
+        retoucher(i, j, ancienne, k);
+        if (nbMarques > 0 && ancienne != k) journaliser(i, j, ancienne);
     }
 
-    /*** 
-     * @return le nombre d'arête du graphe
+    /**
+     * Pose une marque : les ajouts et suppressions d'arêtes qui suivent pourront être défaits par
+     * annuler(marque), en temps proportionnel au nombre de modifications et sans copier le graphe.
+     * Les marques s'emboîtent : chaque marque doit être refermée par annuler ou valider, la plus récente
+     * en premier.
+     *
+     * @return la marque, à passer à annuler ou valider
      */
-    public int nbAretes() {
-        int nbAretes = 0;
-        for (int i = 0; i < mat.length; i++) {
-            for (int j = i + 1; j < mat.length; j++) {
-                if (mat[i][j] > 0) {
-                    nbAretes++;
+    public int marquer() {
+        if (nbMarques == marques.length) {
+            marques = Arrays.copyOf(marques, Math.max(4, 2 * nbMarques));
+            positionsMarques = Arrays.copyOf(positionsMarques, marques.length);
+        }
+        int marque = DERNIERE_MARQUE.incrementAndGet();
+        marques[nbMarques] = marque;
+        positionsMarques[nbMarques++] = tailleJournal;
+        return marque;
+    }
+
+    /**
+     * Défait toutes les modifications faites depuis la marque, puis la referme
+     *
+     * @param marque une marque renvoyée par marquer() et pas encore refermée
+     * @throws IllegalStateException si ce n'est pas la plus récente marque ouverte du graphe
+     */
+    public void annuler(int marque) {
+        int position = positionMarque(marque);
+        boolean suppression = false;
+        for (int p = tailleJournal - 3; p >= position; p -= 3) {
+            int i = journal[p];
+            int j = journal[p + 1];
+            retoucher(i, j, poidsArete(i, j), journal[p + 2]);
+            if (journal[p + 2] == 0) {
+                if (effacerArete(i, j)) compter(i, j, -1);
+                suppression = true;
+            } else if (inscrireArete(i, j, journal[p + 2])) {
+                compter(i, j, 1);
+                if (unionFind != null) unionFind.unir(i, j);
+            }
+        }
+        if (position < tailleJournal) oublierIndex();
+        if (suppression) unionFind = null;
+        tailleJournal = position;
+        fermerMarque();
+    }
+
+    /**
+     * Conserve les modifications faites depuis la marque et la referme (elles restent annulables par une
+     * marque plus ancienne encore ouverte)
+     *
+     * @param marque une marque renvoyée par marquer() et pas encore refermée
+     * @throws IllegalStateException si ce n'est pas la plus récente marque ouverte du graphe
+     */
+    public void valider(int marque) {
+        positionMarque(marque);
+        fermerMarque();
+    }
+
+    /**
+     * @param marque une marque
+     * @return la position dans le journal de la marque, si c'est la plus récente marque ouverte du graphe
+     * @throws IllegalStateException si la marque est déjà refermée, a été posée sur un autre graphe ou
+     *                               n'est pas la plus récente marque ouverte
+     */
+    private int positionMarque(int marque) {
+        if (nbMarques == 0 || marques[nbMarques - 1] != marque) {
+            throw new IllegalStateException("La marque " + marque + " n'est pas la plus récente marque ouverte de ce graphe");
+        }
+        return positionsMarques[nbMarques - 1];
+    }
+
+    private void fermerMarque() {
+        if (--nbMarques == 0) tailleJournal = 0;
+    }
+
+    /**
+     * Ajoute la modification de l'arête (i, j), de longueur ancienne avant la modification, au journal
+     */
+    private void journaliser(int i, int j, int ancienne) {
+        if (tailleJournal + 3 > journal.length) journal = Arrays.copyOf(journal, Math.max(12, 2 * journal.length));
+        journal[tailleJournal++] = i;
+        journal[tailleJournal++] = j;
+        journal[tailleJournal++] = ancienne;
+    }
+
+    /**
+     * Met à jour les compteurs après l'ajout (sens = 1) ou la suppression (sens = -1) de l'arête (i, j),
+     * les degrés de i et j étant déjà à jour
+     */
+    private void compter(int i, int j, int sens) {
+        nbAretes += sens;
+        compterSommet(i, sens);
+        compterSommet(j, sens);
+    }
+
+    private void compterSommet(int x, int sens) {
+        int d = degre(x);
+        nbImpairs += d % 2 == 1 ? 1 : -1; // le degré de x vient de changer de parité
+        if (d == 0) nbIsoles++;
+        else if (d == 1 && sens > 0) nbIsoles--;
+    }
+
+    /**
+     * Recalcule les compteurs et l'empreinte à partir des arêtes, pour une sous-classe dont la
+     * représentation est remplie sans passer par ajouterArete
+     */
+    protected void recompter() {
+        compterAretes();
+        compteursPerimes = false;
+        unionFind = null;
+        oublierIndex();
+    }
+
+    /**
+     * Comme recompter, mais le parcours des arêtes n'a lieu qu'à la première lecture d'un compteur ou de
+     * l'empreinte (sous verrou, ce qui permet des lectures simultanées). Réservé aux sous-classes en lecture
+     * seule, dont les arêtes ne changent plus ensuite.
+     */
+    protected void recompterALaDemande() {
+        unionFind = null;
+        oublierIndex();
+        compteursPerimes = true;
+    }
+
+    /**
+     * Recalcule les compteurs si recompterALaDemande l'a demandé
+     */
+    private void compteurs() {
+        if (compteursPerimes) {
+            synchronized (this) {
+                if (compteursPerimes) {
+                    compterAretes();
+                    compteursPerimes = false;
                 }
             }
         }
+    }
+
+    private void compterAretes() {
+        nbAretes = 0;
+        nbImpairs = 0;
+        nbIsoles = 0;
+        empreinte = 0;
+        for (int v = 0; v < ordre; v++) {
+            int d = degre(v);
+            nbAretes += d;
+            if (d % 2 != 0) nbImpairs++;
+            if (d == 0) nbIsoles++;
+            for (int k = 0; k < d; k++) {
+                int j = voisin(v, k);
+                if (v < j) empreinte += melange(v, j) * poidsVoisin(v, k);
+            }
+        }
+        nbAretes /= 2;
+    }
+
+    /**
+     * Met à jour l'empreinte après que la longueur de l'arête (i, j) est passée de ancienne à nouvelle
+     * (0 pour une arête absente)
+     */
+    private void retoucher(int i, int j, int ancienne, int nouvelle) {
+        empreinte += melange(Math.min(i, j), Math.max(i, j)) * (nouvelle - ancienne);
+    }
+
+    /**
+     * Valeur pseudo-aléatoire associée à la paire de sommets (i, j), avec i < j (fonction de mélange de
+     * SplitMix64)
+     */
+    private static long melange(int i, int j) {
+        long z = ((long) i << 32 | j) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return l'empreinte des arêtes du graphe, mise à jour à chaque modification : deux graphes égaux ont
+     * la même empreinte (deux graphes différents n'en ont presque jamais la même)
+     */
+    public long empreinte() {
+        compteurs();
+        return empreinte;
+    }
+
+    /**
+     * Deux graphes sont égaux s'ils ont le même nombre de sommets et les mêmes arêtes, avec les mêmes
+     * longueurs, quelle que soit leur représentation. L'empreinte permet d'écarter en temps constant
+     * presque tous les graphes différents.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Graphe)) return false;
+        Graphe autre = (Graphe) o;
+        compteurs();
+        autre.compteurs();
+        if (ordre != autre.ordre || nbAretes != autre.nbAretes || empreinte != autre.empreinte) return false;
+        for (int v = 0; v < ordre; v++) {
+            if (degre(v) != autre.degre(v)) return false;
+            for (int k = 0; k < degre(v); k++) {
+                if (voisin(v, k) != autre.voisin(v, k) || poidsVoisin(v, k) != autre.poidsVoisin(v, k)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculé en temps constant à partir de l'empreinte. Comme equals, il change lorsque le graphe est
+     * modifié : un graphe ne doit pas être modifié tant qu'il sert de clé dans une table de hachage.
+     */
+    @Override
+    public int hashCode() {
+        compteurs();
+        return 31 * Long.hashCode(empreinte) + ordre;
+    }
+
+    /**
+     * Oublie les informations calculées à la demande qui dépendent de l'ensemble des arêtes
+     */
+    private void oublierIndex() {
+        connexite = null;
+        isthmes = null;
+    }
+
+    /**
+     * Enregistre l'arête entre i et j (i != j) avec la longueur k > 0 dans la représentation du graphe, ou
+     * met sa longueur à jour si elle existe déjà
+     *
+     * @return vrai si l'arête n'existait pas, faux sinon
+     */
+    protected boolean inscrireArete(int i, int j, int k) {
+        int p = position(i, j);
+        if (p >= 0) {
+            // l'arête existe déjà : on met simplement sa longueur à jour
+            longueurs[i][p] = k;
+            longueurs[j][position(j, i)] = k;
+            return false;
+        }
+        inserer(i, -p - 1, j, k);
+        inserer(j, -position(j, i) - 1, i, k);
+        return true;
+    }
+
+    /**
+     * Retire l'arête entre i et j de la représentation du graphe
+     *
+     * @return vrai si l'arête existait, faux sinon
+     */
+    protected boolean effacerArete(int i, int j) {
+        int p = position(i, j);
+        if (p < 0) return false;
+        retirer(i, p);
+        retirer(j, position(j, i));
+        return true;
+    }
+
+    /**
+     * Retire la case p de la liste d'adjacence de i en décalant les suivantes
+     */
+    private void retirer(int i, int p) {
+        int suivants = degres[i] - p - 1;
+        System.arraycopy(adjacence[i], p + 1, adjacence[i], p, suivants);
+        System.arraycopy(longueurs[i], p + 1, longueurs[i], p, suivants);
+        degres[i]--;
+    }
+
+    /**
+     * Insère le voisin j de longueur k à la case p de la liste d'adjacence de i (en agrandissant la liste
+     * si nécessaire)
+     */
+    private void inserer(int i, int p, int j, int k) {
+        if (degres[i] == adjacence[i].length) {
+            int capacite = Math.max(4, 2 * degres[i]);
+            adjacence[i] = Arrays.copyOf(adjacence[i], capacite);
+            longueurs[i] = Arrays.copyOf(longueurs[i], capacite);
+        }
+        int suivants = degres[i] - p;
+        System.arraycopy(adjacence[i], p, adjacence[i], p + 1, suivants);
+        System.arraycopy(longueurs[i], p, longueurs[i], p + 1, suivants);
+        adjacence[i][p] = j;
+        longueurs[i][p] = k;
+        degres[i]++;
+    }
+
+    /*** 
+     * @return le nombre d'arête du graphe
+     */
+    public int nbAretes() {
+        compteurs();
         return nbAretes;
     }
 
+    /**
+     * @return le nombre de sommets de degré impair
+     */
+    public int nbSommetsDeDegreImpair() {
+        compteurs();
+        return nbImpairs;
+    }
+
+    /**
+     * @return le nombre de sommets sans voisin
+     */
+    public int nbSommetsIsoles() {
+        compteurs();
+        return nbIsoles;
+    }
+
     /**
      * @param i un entier représentant un sommet
      * @param j un autre entier représentant un sommet
      * @return vrai s'il existe une arête entre i et j, faux sinon
      */
     public boolean existeArete(int i, int j) {
-        return mat[i][j] > 0;
+        return degres[i] <= degres[j] ? position(i, j) >= 0 : position(j, i) >= 0;
+    }
+
+    /**
+     * @param i un entier représentant un sommet
+     * @param j un autre entier représentant un sommet
+     * @return la longueur de l'arête entre i et j (0 s'il n'y a pas d'arête)
+     */
+    public int poidsArete(int i, int j) {
+        int p = position(i, j);
+        return p >= 0 ? longueurs[i][p] : 0;
     }
 
     /**
      * @param v un entier représentant un sommet du graphe
-     * @return la liste des sommets voisins de v
+     * @return la liste des sommets voisins de v (par ordre croissant)
      */
     public ArrayList<Integer> voisins(int v) {
-        ArrayList<Integer> voisin = new ArrayList<>();
-        for (int i = 0; i < mat.length; i++) {
-            if (existeArete(v,i)) voisin.add(i); //Pour chaque sommet du graphe, on vérifie s'il existe une arête entre v et ce dernier.
-        }
+        ArrayList<Integer> voisin = new ArrayList<>(degre(v));
+        for (int k = 0; k < degre(v); k++) voisin.add(voisin(v, k));
         return voisin;
     }
 
     /**
-     * @return une chaîne de caractères permettant d'afficher la matrice mat
+     * @param v un entier représentant un sommet du graphe
+     * @return le nombre de voisins de v
+     */
+    public int degre(int v) {
+        return degres[v];
+    }
+
+    /**
+     * Accès direct aux voisins de v, sans allocation : les voisins de v sont voisin(v, 0), ...,
+     * voisin(v, degre(v) - 1), par ordre croissant
+     *
+     * @param v un entier représentant un sommet du graphe
+     * @param k un indice compris entre 0 et degre(v) - 1
+     * @return le k-ième voisin de v
+     */
+    public int voisin(int v, int k) {
+        return adjacence[v][k];
+    }
+
+    /**
+     * @param v un entier représentant un sommet du graphe
+     * @param k un indice compris entre 0 et degre(v) - 1
+     * @return la longueur de l'arête entre v et voisin(v, k)
+     */
+    public int poidsVoisin(int v, int k) {
+        return longueurs[v][k];
+    }
+
+    /**
+     * Applique une action à chacun des voisins de v (par ordre croissant)
+     *
+     * @param v      un entier représentant un sommet du graphe
+     * @param action l'action à appliquer à chaque voisin
+     */
+    public void forEachVoisin(int v, IntConsumer action) {
+        for (int k = 0; k < degre(v); k++) action.accept(voisin(v, k));
+    }
+
+    /**
+     * @return une chaîne de caractères permettant d'afficher la matrice d'adjacence du graphe, ou seulement
+     * ses nombres de sommets et d'arêtes s'il a plus de TAILLE_MAX_MATRICE sommets (FluxAretes permet
+     * d'enregistrer un grand graphe)
      */
     public String toString() {
+        if (nbSommets() > TAILLE_MAX_MATRICE) return "Graphe à " + nbSommets() + " sommets et " + nbAretes() + " arêtes";
         StringBuilder res = new StringBuilder("\n");
-        for (int[] ligne : mat) {
-            for (int j = 0; j < mat.length; j++) {
-                String x = String.valueOf(ligne[j]);
+        int[] ligne = new int[nbSommets()];
+        for (int i = 0; i < nbSommets(); i++) {
+            Arrays.fill(ligne, 0);
+            for (int k = 0; k < degre(i); k++) ligne[voisin(i, k)] = poidsVoisin(i, k);
+            for (int x : ligne) {
                 res.append(x);
                 res.append('\t');
             }
@@ -114,6 +612,86 @@ public class Graphe {
         return res.toString();
     }
 
+    /**
+     * @return l'index des classes de connexité du graphe (recalculé seulement si le graphe a été modifié
+     * depuis le dernier appel)
+     */
+    public IndexConnexite indexConnexite() {
+        if (connexite == null) connexite = calculerIndexConnexite();
+        return connexite;
+    }
+
+    /**
+     * Calcule les classes de connexité du graphe (une sous-classe peut tirer parti de sa représentation)
+     *
+     * @return l'index des classes de connexité du graphe
+     */
+    protected IndexConnexite calculerIndexConnexite() {
+        return new IndexConnexite(this);
+    }
+
+    /**
+     * @return la partition des sommets en classes de connexité, maintenue à chaque ajout d'arête
+     * (reconstruite en O(m α(n)) si une arête a été supprimée depuis le dernier appel)
+     */
+    private UnionFind unionFind() {
+        if (unionFind == null) {
+            unionFind = new UnionFind(nbSommets());
+            for (int i = 0; i < nbSommets(); i++) {
+                for (int k = 0; k < degre(i); k++) {
+                    if (i < voisin(i, k)) unionFind.unir(i, voisin(i, k));
+                }
+            }
+        }
+        return unionFind;
+    }
+
+    /**
+     * @param u un entier représentant un sommet
+     * @param v un entier représentant un sommet
+     * @return vrai si u et v sont dans la même classe de connexité, faux sinon
+     */
+    public boolean memeClasse(int u, int v) {
+        return unionFind().memeEnsemble(u, v);
+    }
+
+    /**
+     * Répond en une fois à plusieurs questions « u et v sont-ils dans la même classe de connexité ? », à
+     * partir d'un seul étiquetage des classes
+     *
+     * @param paires des paires de sommets {u, v}
+     * @return un tableau dont la case k est vraie si les sommets de paires[k] sont reliés
+     */
+    public boolean[] sontRelies(int[][] paires) {
+        return sontRelies(paires, new int[0][]);
+    }
+
+    /**
+     * Comme sontRelies(paires), en tenant compte d'arêtes supplémentaires (par exemple les routes
+     * empruntées grâce aux gares) qui ne sont pas ajoutées au graphe : les classes reliées par ces arêtes
+     * sont réunies dans une partition des classes, sans recopier ni modifier le graphe.
+     *
+     * @param paires       des paires de sommets {u, v}
+     * @param aretesEnPlus des arêtes {u, v} (une longueur éventuelle est ignorée)
+     * @return un tableau dont la case k est vraie si les sommets de paires[k] sont reliés dans le graphe
+     * augmenté des arêtes supplémentaires
+     */
+    public boolean[] sontRelies(int[][] paires, int[][] aretesEnPlus) {
+        IndexConnexite index = indexConnexite();
+        UnionFind classes = null;
+        if (aretesEnPlus.length > 0) {
+            classes = new UnionFind(index.nbClasses());
+            for (int[] a : aretesEnPlus) classes.unir(index.classe(a[0]), index.classe(a[1]));
+        }
+        boolean[] relies = new boolean[paires.length];
+        for (int k = 0; k < paires.length; k++) {
+            int c1 = index.classe(paires[k][0]);
+            int c2 = index.classe(paires[k][1]);
+            relies[k] = classes == null ? c1 == c2 : classes.memeEnsemble(c1, c2);
+        }
+        return relies;
+    }
+
     /**
      * Calcule la classe de connexité du sommet v
      *
@@ -121,32 +699,17 @@ public class Graphe {
      * @return une liste d'entiers représentant les sommets de la classe de connexité de v
      */
     public ArrayList<Integer> calculerClasseDeConnexite(int v) {
-        ArrayList<Integer> bleus = new ArrayList<>();
-        ArrayList<Integer> rouges = new ArrayList<>();
-        bleus.add(v);
-        while(!bleus.isEmpty()) {
-            int sommet = bleus.remove(0);
-            ArrayList<Integer> voisinsNonMarques = voisins(sommet);
-            voisinsNonMarques.removeAll(rouges);
-            voisinsNonMarques.removeAll(bleus);
-            bleus.addAll(voisinsNonMarques);
-            rouges.add(sommet);
-        }
-        return rouges;
+        IndexConnexite index = indexConnexite();
+        return index.sommets(index.classe(v));
     }
 
     /**
      * @return la liste des classes de connexité du graphe
      */
     public ArrayList<ArrayList<Integer>> calculerClassesDeConnexite() {
-        ArrayList<ArrayList<Integer>> listeCDC = new ArrayList<>();
-        ArrayList<Integer> sommets = new ArrayList<>();
-        for (int i = 0; i < mat.length; i++) sommets.add(i);
-        while (!sommets.isEmpty()) {
-            ArrayList<Integer> cdc = calculerClasseDeConnexite(sommets.remove(0));
-            sommets.removeAll(cdc);
-            listeCDC.add(cdc);
-        }
+        IndexConnexite index = indexConnexite();
+        ArrayList<ArrayList<Integer>> listeCDC = new ArrayList<>(index.nbClasses());
+        for (int c = 0; c < index.nbClasses(); c++) listeCDC.add(index.sommets(c));
         return listeCDC;
     }
 
@@ -154,7 +717,7 @@ public class Graphe {
      * @return le nombre de classes de connexité
      */
     public int nbCC() {
-        return calculerClassesDeConnexite().size();
+        return unionFind().nbEnsembles();
     }
 
     /**
@@ -163,55 +726,84 @@ public class Graphe {
      * @return vrai si (u,v) est un isthme, faux sinon
      */
     public boolean estUnIsthme(int u, int v) {
-        if (!existeArete(u, v)) return false; //Si il n'y a pas d'arête entre les 2 sommets, il ne peut pas y avoir d'isthme.
-        Graphe g = copie(this); //Création d'une copie du graphe
-        g.supprimerArete(u, v); //Suppression de l'arête dans la copie
-        return g.nbCC() > nbCC(); //Vérification du nombre de classes de connexité dans le graphe sans l'arête par rapport au graphe d'origine.
+        return indexIsthmes().estUnIsthme(u, v);
     }
 
+    /**
+     * @return les isthmes du graphe (recalculés en O(n + m) seulement si le graphe a été modifié depuis le
+     * dernier appel)
+     */
+    public Isthmes indexIsthmes() {
+        if (isthmes == null) isthmes = new Isthmes(this);
+        return isthmes;
+    }
 
     /**
-     * Calcule le plus long chemin présent dans le graphe
+     * Calcule le plus long chemin présent dans le graphe (CacheResultats permet de ne pas refaire le calcul
+     * pour des graphes égaux interrogés à plusieurs reprises)
      *
      * @return une liste de sommets formant le plus long chemin dans le graphe
      */
     public ArrayList<Integer> plusLongChemin() {
-        ArrayList<Integer> plusLongChemin = new ArrayList<>();
-        for (int i = 0; i < nbCC(); i++) {
-            ArrayList<Integer> CDC = calculerClassesDeConnexite().get(i); //Pour chaque composante connexe, calcul de tous les chemins pour chaque sommet
-            for (int j = 0; j < CDC.size(); j++) {
-                for (ArrayList<Integer> c : cheminsDuSommet(CDC.get(0))) {
-                    if (valuationChemin(plusLongChemin) < valuationChemin(c)) plusLongChemin = c; //Si le chemin c du sommet actuel est plus long
-                                                                                                 // que le précédent chemin enregistré alors on met à jour ce dernier.
-                }
-            }
-        }
-        return plusLongChemin;
+        return new RecherchePlusLongChemin(this).calculer();
     }
 
     /**
-     * Calcule tous les chemins possibles pour un sommet donné.
+     * Calcule le plus long chemin de la seule classe de connexité de v : la recherche porte sur le
+     * sous-graphe de cette classe, renuméroté (sans état partagé entre deux appels), et ne dépend donc pas
+     * du reste du graphe. Après l'ajout d'une
+     * arête (u, v), c'est la seule classe dont le plus long chemin peut avoir changé.
      *
-     * @param s un sommet du graphe compris entre 0 et mat.length - 1
-     * @return La liste de tous les chemins pour le sommet s.
+     * @param v un entier représentant un sommet
+     * @return une liste de sommets (du graphe) formant le plus long chemin de la classe de v
      */
-    private ArrayList<ArrayList<Integer>> cheminsDuSommet(int s) {
-        HashSet<ArrayList<Integer>> chemins = new HashSet<>(); //Initialisation de la liste des chemins comme un ensemble pour éviter les doublons.
-        Graphe g = copie(this); //Création d'une copie du graphe pour ne pas modifier le graphe d'origine.
-        ArrayList<Integer> chemin = new ArrayList<>();
-        chemin.add(s); //Ajout du sommet s au chemin courant calculé
-        for (int v : g.voisins(s)) {
-            g.supprimerArete(s, v); //Pour chaque voisin du sommet s : on supprime l'arête en s et ce voisin
-                                    //Cela permet d'éviter que cette arête soir retraversée.
-            for (ArrayList<Integer> c : g.cheminsDuSommet(v)) { //A partir de la copie du graphe sans l'arête
-                                                                //On rappelle le construction de tous les chemins d'un sommet sur le voisin v
-                ArrayList<Integer> sousChemin = new ArrayList<>(chemin); //On crée un sousChemin à partir du chemin courant
-                sousChemin.addAll(c); //On ajoute au sousChemin un chemin c du sommet v
-                chemins.add(sousChemin); //On enregistre notre sousChemin dans notre liste de chemins finale.
+    public ArrayList<Integer> plusLongCheminDeLaClasse(int v) {
+        IndexConnexite index = indexConnexite();
+        int c = index.classe(v);
+        int taille = index.taille(c);
+        Graphe classe = new Graphe(taille);
+        for (int k = 0; k < taille; k++) {
+            int s = index.sommet(c, k);
+            for (int p = 0; p < degre(s); p++) {
+                int w = voisin(s, p);
+                if (s < w) classe.ajouterArete(k, index.rang(c, w), poidsVoisin(s, p));
             }
         }
-        chemins.add(chemin); //On ajoute le 1er chemin créé à notre liste de chemin.
-        return new ArrayList<>(chemins);
+        ArrayList<Integer> chemin = new RecherchePlusLongChemin(classe).calculer();
+        for (int k = 0; k < chemin.size(); k++) chemin.set(k, index.sommet(c, chemin.get(k)));
+        return chemin;
+    }
+
+    /**
+     * Calcule le plus long chemin présent dans le graphe sans dépasser le temps imparti. Si la recherche
+     * n'a pas abouti à temps (ou si le fil d'exécution est interrompu), le meilleur chemin trouvé jusque-là
+     * est renvoyé et n'est pas marqué comme optimal.
+     *
+     * @param budget le temps imparti à la recherche
+     * @return le meilleur chemin trouvé, sa valuation et s'il est prouvé optimal
+     */
+    public ResultatChemin plusLongCheminEnTempsLimite(Duration budget) {
+        return new RecherchePlusLongChemin(this).calculer(budget);
+    }
+
+    /**
+     * Calcule rapidement (en O(m log m)) un long chemin du graphe, sans garantie d'optimalité, pour les
+     * graphes trop grands pour plusLongChemin()
+     *
+     * @return le chemin trouvé, sa valuation et un majorant de la valuation du plus long chemin
+     */
+    public ResultatChemin plusLongCheminApproche() {
+        return HeuristiquePlusLongChemin.calculer(this);
+    }
+
+    /**
+     * Calcule le plus long chemin présent dans le graphe en répartissant la recherche sur plusieurs fils
+     * d'exécution (ForkJoinPool commun). Le résultat est identique à celui de plusLongChemin().
+     *
+     * @return une liste de sommets formant le plus long chemin dans le graphe
+     */
+    public ArrayList<Integer> plusLongCheminParallele() {
+        return new RecherchePlusLongChemin(this).calculerEnParallele();
     }
 
     /**
@@ -223,7 +815,7 @@ public class Graphe {
     public int valuationChemin(ArrayList<Integer> chemin) {
         int valeur = 0;
         for (int i = 0; i < chemin.size()-1; i++) {
-            valeur += mat[chemin.get(i)][chemin.get(i+1)];
+            valeur += poidsArete(chemin.get(i), chemin.get(i+1));
         }
         return valeur;
     }
@@ -233,15 +825,16 @@ public class Graphe {
      * @return vrai s'il existe un parcours eulérien dans le graphe, faux sinon
      */
     public boolean existeParcoursEulerien() {
-        boolean eulerien = nbCC() == 1; //Première vérification : le graphe est connexe.
-        int i = 0; //Curseur de sommet
-        int impairs = 0; //Compteur de sommets de degré impairs
-        while (i < mat.length && eulerien) { //Pour chaque sommet
-            if(voisins(i).size() % 2 != 0) impairs++; //Si le degré du sommet est impair on incrémente le compteur.
-            if (impairs > 2) eulerien = false; //S'il y'a plus de 2 sommets de degré impairs, le graphe ne possède pas de parcours eulérien
-            i++; //On met à jour le curseur de sommet
-        }
-        return eulerien;
+        return nbCC() == 1 && nbSommetsDeDegreImpair() <= 2; //Le graphe est connexe et a au plus 2 sommets de degré impair
+    }
+
+    /**
+     * Construit un parcours eulérien du graphe en temps linéaire (voir ParcoursEulerien)
+     *
+     * @return les sommets du parcours dans l'ordre, tableau vide s'il n'existe pas de parcours eulérien
+     */
+    public int[] parcoursEulerien() {
+        return ParcoursEulerien.calculer(this);
     }
 
     /**
@@ -251,4 +844,11 @@ public class Graphe {
         return nbCC() == 1 && nbAretes() == nbSommets() - 1; //Vérification que l'arbre est connexe et que sa taille est égale à son ordre - 1
     }
 
+    /**
+     * @return vrai si le graphe est une forêt (chacune de ses classes de connexité est un arbre), faux sinon
+     */
+    public boolean estUneForet() {
+        return nbAretes() == nbSommets() - nbCC(); //Un arbre à p sommets a p - 1 arêtes
+    }
+
 }
\ No newline at end of file
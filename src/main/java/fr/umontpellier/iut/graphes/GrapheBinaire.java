@@ -0,0 +1,276 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Graphe dont la relation de voisinage est stockée sous forme de matrice de bits, adapté aux plateaux de
+ * jeu (quelques dizaines de villes).
+ * <p>
+ * Jusqu'à 64 sommets, la ligne de chaque sommet tient dans un long : le bit j de lignes[i] vaut 1 si et
+ * seulement si i et j sont voisins. Le degré est alors un simple Long.bitCount et les classes de connexité
+ * sont calculées par un parcours en largeur qui traite toute la frontière d'un coup par des « ou » de
+ * lignes. Au-delà de 64 sommets, les lignes sont des java.util.BitSet et les mêmes opérations sont faites
+ * mot par mot.
+ * <p>
+ * Les longueurs sont rangées dans un tableau triangulaire (une case par paire de sommets). Tant qu'aucune
+ * arête ne dépasse 255 (les routes des plateaux font au plus 8), chaque case est un octet non signé ; la
+ * première arête plus longue fait passer tout le tableau en int. Le tableau triangulaire limite le graphe
+ * à 65536 sommets.
+ * <p>
+ * Pour que voisin(v, k) et poidsVoisin(v, k) soient en temps constant dans les boucles sur les voisins, la
+ * liste triée des voisins de chaque sommet est construite à la première demande et oubliée lorsqu'une
+ * arête du sommet est ajoutée ou supprimée.
+ */
+public class GrapheBinaire extends Graphe {
+    /**
+     * Nombre maximal de sommets pour lequel les lignes sont des long
+     */
+    private static final int TAILLE_MOT = 64;
+    /**
+     * Plus grande longueur qui tient dans un octet non signé
+     */
+    private static final int LONGUEUR_MAX_OCTET = 0xFF;
+    /**
+     * Nombre maximal de sommets pour lequel le tableau triangulaire des longueurs tient dans un tableau Java
+     */
+    public static final int NB_SOMMETS_MAX = 1 << 16;
+
+    /**
+     * Lignes de la matrice d'adjacence si le graphe a au plus 64 sommets (null sinon)
+     */
+    private final long[] lignes;
+    /**
+     * Lignes de la matrice d'adjacence si le graphe a plus de 64 sommets (null sinon)
+     */
+    private final BitSet[] grandesLignes;
+    /**
+     * Longueur (octet non signé) de l'arête entre i et j (i > j) à la case i * (i - 1) / 2 + j, 0 s'il n'y a
+     * pas d'arête (null dès qu'une longueur dépasse LONGUEUR_MAX_OCTET)
+     */
+    private byte[] longueursOctets;
+    /**
+     * Mêmes longueurs, une fois qu'une d'entre elles dépasse LONGUEUR_MAX_OCTET (null avant)
+     */
+    private int[] longueurs;
+    /**
+     * Voisins de chaque sommet par ordre croissant, construits à la demande (null si pas encore construits
+     * ou si une arête du sommet a changé depuis)
+     */
+    private final int[][] listesVoisins;
+
+    /**
+     * Construit un graphe à n sommets
+     *
+     * @param n le nombre de sommets du graphe
+     */
+    public GrapheBinaire(int n) {
+        super(verifierTaille(n), false);
+        if (n <= TAILLE_MOT) {
+            lignes = new long[n];
+            grandesLignes = null;
+        } else {
+            lignes = null;
+            grandesLignes = new BitSet[n];
+            for (int i = 0; i < n; i++) grandesLignes[i] = new BitSet(n);
+        }
+        longueursOctets = new byte[indice(n, 0)];
+        listesVoisins = new int[n][];
+    }
+
+    /**
+     * @return n, s'il est possible de construire un GrapheBinaire à n sommets
+     */
+    private static int verifierTaille(int n) {
+        if (n < 0 || n > NB_SOMMETS_MAX) throw new IllegalArgumentException("Nombre de sommets hors de [0, " + NB_SOMMETS_MAX + "] : " + n);
+        return n;
+    }
+
+    /**
+     * Construit une copie d'un graphe, avec la même représentation
+     *
+     * @param g un graphe
+     */
+    public GrapheBinaire(Graphe g) {
+        this(g.nbSommets());
+        for (int i = 0; i < g.nbSommets(); i++) {
+            int d = g.degre(i);
+            for (int k = 0; k < d; k++) {
+                int j = g.voisin(i, k);
+                if (i < j) ajouterArete(i, j, g.poidsVoisin(i, k));
+            }
+        }
+    }
+
+    /**
+     * @return l'indice de la paire {i, j} dans le tableau des longueurs
+     */
+    private static int indice(int i, int j) {
+        int haut = Math.max(i, j);
+        return (int) ((long) haut * (haut - 1) / 2) + Math.min(i, j);
+    }
+
+    /**
+     * @return la longueur rangée à la case p du tableau triangulaire
+     */
+    private int longueur(int p) {
+        return longueursOctets != null ? longueursOctets[p] & LONGUEUR_MAX_OCTET : longueurs[p];
+    }
+
+    /**
+     * Range la longueur k à la case p du tableau triangulaire, en passant aux int si k ne tient pas dans
+     * un octet
+     */
+    private void ranger(int p, int k) {
+        if (longueursOctets != null && k > LONGUEUR_MAX_OCTET) {
+            longueurs = new int[longueursOctets.length];
+            for (int q = 0; q < longueurs.length; q++) longueurs[q] = longueursOctets[q] & LONGUEUR_MAX_OCTET;
+            longueursOctets = null;
+        }
+        if (longueursOctets != null) longueursOctets[p] = (byte) k;
+        else longueurs[p] = k;
+    }
+
+    @Override
+    protected boolean inscrireArete(int i, int j, int k) {
+        boolean nouvelle = !existeArete(i, j);
+        if (nouvelle) {
+            if (lignes != null) {
+                lignes[i] |= 1L << j;
+                lignes[j] |= 1L << i;
+            } else {
+                grandesLignes[i].set(j);
+                grandesLignes[j].set(i);
+            }
+            listesVoisins[i] = null;
+            listesVoisins[j] = null;
+        }
+        ranger(indice(i, j), k);
+        return nouvelle;
+    }
+
+    @Override
+    protected boolean effacerArete(int i, int j) {
+        if (!existeArete(i, j)) return false;
+        if (lignes != null) {
+            lignes[i] &= ~(1L << j);
+            lignes[j] &= ~(1L << i);
+        } else {
+            grandesLignes[i].clear(j);
+            grandesLignes[j].clear(i);
+        }
+        listesVoisins[i] = null;
+        listesVoisins[j] = null;
+        ranger(indice(i, j), 0);
+        return true;
+    }
+
+    @Override
+    public boolean existeArete(int i, int j) {
+        return lignes != null ? (lignes[i] >>> j & 1L) != 0 : grandesLignes[i].get(j);
+    }
+
+    @Override
+    public int poidsArete(int i, int j) {
+        return i == j ? 0 : longueur(indice(i, j));
+    }
+
+    /**
+     * @return les voisins de v par ordre croissant (à ne pas modifier)
+     */
+    private int[] listeVoisins(int v) {
+        int[] liste = listesVoisins[v];
+        if (liste == null) {
+            if (lignes != null) {
+                long ligne = lignes[v];
+                liste = new int[Long.bitCount(ligne)];
+                for (int k = 0; ligne != 0; ligne &= ligne - 1) liste[k++] = Long.numberOfTrailingZeros(ligne);
+            } else {
+                BitSet ligne = grandesLignes[v];
+                liste = new int[ligne.cardinality()];
+                for (int k = 0, j = ligne.nextSetBit(0); j >= 0; j = ligne.nextSetBit(j + 1)) liste[k++] = j;
+            }
+            listesVoisins[v] = liste;
+        }
+        return liste;
+    }
+
+    @Override
+    public int degre(int v) {
+        return lignes != null ? Long.bitCount(lignes[v]) : listeVoisins(v).length;
+    }
+
+    @Override
+    public int voisin(int v, int k) {
+        return listeVoisins(v)[k];
+    }
+
+    @Override
+    public int poidsVoisin(int v, int k) {
+        return longueur(indice(v, listeVoisins(v)[k]));
+    }
+
+    @Override
+    public void forEachVoisin(int v, IntConsumer action) {
+        if (lignes != null) {
+            for (long ligne = lignes[v]; ligne != 0; ligne &= ligne - 1) action.accept(Long.numberOfTrailingZeros(ligne));
+        } else {
+            BitSet ligne = grandesLignes[v];
+            for (int j = ligne.nextSetBit(0); j >= 0; j = ligne.nextSetBit(j + 1)) action.accept(j);
+        }
+    }
+
+    @Override
+    public ArrayList<Integer> voisins(int v) {
+        ArrayList<Integer> voisins = new ArrayList<>(degre(v));
+        forEachVoisin(v, voisins::add);
+        return voisins;
+    }
+
+    /**
+     * Parcours en largeur par ensembles : à chaque étape, la frontière entière est remplacée par la réunion
+     * des lignes de ses sommets privée des sommets déjà atteints
+     */
+    @Override
+    protected IndexConnexite calculerIndexConnexite() {
+        int n = nbSommets();
+        int[] classe = new int[n];
+        int nbClasses = 0;
+        if (lignes != null) {
+            long restants = n == TAILLE_MOT ? -1L : (1L << n) - 1;
+            while (restants != 0) {
+                long atteints = restants & -restants; // plus petit sommet non encore classé
+                long frontiere = atteints;
+                while (frontiere != 0) {
+                    long suivants = 0;
+                    for (long f = frontiere; f != 0; f &= f - 1) suivants |= lignes[Long.numberOfTrailingZeros(f)];
+                    frontiere = suivants & ~atteints;
+                    atteints |= frontiere;
+                }
+                for (long a = atteints; a != 0; a &= a - 1) classe[Long.numberOfTrailingZeros(a)] = nbClasses;
+                restants &= ~atteints;
+                nbClasses++;
+            }
+        } else {
+            BitSet restants = new BitSet(n);
+            restants.set(0, n);
+            for (int s = restants.nextSetBit(0); s >= 0; s = restants.nextSetBit(s + 1)) {
+                BitSet atteints = new BitSet(n);
+                atteints.set(s);
+                BitSet frontiere = (BitSet) atteints.clone();
+                while (!frontiere.isEmpty()) {
+                    BitSet suivants = new BitSet(n);
+                    for (int f = frontiere.nextSetBit(0); f >= 0; f = frontiere.nextSetBit(f + 1)) suivants.or(grandesLignes[f]);
+                    suivants.andNot(atteints);
+                    atteints.or(suivants);
+                    frontiere = suivants;
+                }
+                for (int a = atteints.nextSetBit(0); a >= 0; a = atteints.nextSetBit(a + 1)) classe[a] = nbClasses;
+                restants.andNot(atteints);
+                nbClasses++;
+            }
+        }
+        return new IndexConnexite(classe);
+    }
+}
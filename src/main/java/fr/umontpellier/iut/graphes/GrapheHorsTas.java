@@ -0,0 +1,260 @@
+package fr.umontpellier.iut.graphes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.function.IntConsumer;
+
+/**
+ * Graphe en lecture seule dont les arêtes sont rangées hors du tas Java, dans un ByteBuffer direct ou
+ * projeté en mémoire depuis un fichier : un très grand réseau ne pèse alors presque rien pour le ramasse-
+ * miettes, et peut être partagé entre plusieurs fils d'exécution.
+ * <p>
+ * Le tampon contient des entiers de 32 bits : le nombre de sommets n, le nombre d'arêtes m, puis les n + 1
+ * débuts de liste, les 2m voisins (par ordre croissant pour chaque sommet) et les 2m longueurs
+ * correspondantes. Les voisins de v occupent les positions debut[v] à debut[v + 1] - 1. Un tampon est
+ * limité à 2 Go, soit environ 130 millions d'arêtes.
+ * <p>
+ * Toute modification lève UnsupportedOperationException. La construction ne lit que l'en-tête du tampon :
+ * les compteurs (degrés impairs, sommets isolés, empreinte), les classes de connexité et les isthmes sont
+ * calculés à la première demande (sous verrou), si bien que toutes les requêtes peuvent être faites en même
+ * temps depuis plusieurs fils d'exécution.
+ */
+public class GrapheHorsTas extends Graphe {
+    /**
+     * Nombre d'entiers de l'en-tête (n et m)
+     */
+    private static final int EN_TETE = 2;
+
+    /**
+     * Entiers du tampon, lus uniquement par des accès absolus (sans effet sur la position du tampon)
+     */
+    private final IntBuffer donnees;
+    /**
+     * Position du premier voisin (le tableau debut commence juste après l'en-tête)
+     */
+    private final int cibles;
+    /**
+     * Position de la première longueur
+     */
+    private final int poids;
+    /**
+     * Classes de connexité, calculées à la première demande
+     */
+    private volatile IndexConnexite connexite;
+    /**
+     * Isthmes, calculés à la première demande
+     */
+    private Isthmes isthmes;
+
+    /**
+     * Construit un graphe à partir d'un tampon au format décrit plus haut, à partir de sa position courante.
+     * Le tampon n'est pas recopié : il ne doit plus être modifié. Seuls l'en-tête et la taille du tampon sont
+     * vérifiés, en temps constant ; verifier() contrôle le reste du tampon lorsqu'il vient d'une source qui
+     * n'est pas sûre.
+     *
+     * @param tampon un tampon au format de GrapheHorsTas (dans l'ordre d'octets du tampon)
+     */
+    public GrapheHorsTas(ByteBuffer tampon) {
+        super(nbSommets(tampon), false);
+        donnees = tampon.slice().order(tampon.order()).asIntBuffer();
+        int n = nbSommets();
+        int m = donnees.get(1);
+        cibles = EN_TETE + n + 1;
+        if (m < 0 || m > Integer.MAX_VALUE / 4 || donnees.limit() < cibles + 4L * m || debut(0) != 0 || debut(n) != 2 * m) {
+            throw new IllegalArgumentException("Tampon incohérent pour un graphe à " + n + " sommets et " + m + " arêtes");
+        }
+        poids = cibles + 2 * m;
+        recompterALaDemande();
+    }
+
+    /**
+     * Vérifie en O(m log d) que tout le tampon décrit bien un graphe : débuts de liste croissants, voisins
+     * valides et rangés par ordre strictement croissant, longueurs positives, et chaque arête présente dans
+     * les deux sens avec la même longueur. Les requêtes sur un tampon non vérifié et mal formé peuvent donner
+     * des réponses fausses ou lever IndexOutOfBoundsException.
+     *
+     * @return ce graphe
+     * @throws IllegalArgumentException si le tampon est mal formé
+     */
+    public GrapheHorsTas verifier() {
+        int n = nbSommets();
+        for (int v = 0; v < n; v++) {
+            if (debut(v + 1) < debut(v)) throw new IllegalArgumentException("Débuts de liste décroissants au sommet " + v);
+        }
+        for (int v = 0; v < n; v++) {
+            for (int k = 0; k < degre(v); k++) {
+                int w = voisin(v, k);
+                int longueur = poidsVoisin(v, k);
+                if (w < 0 || w >= n || w == v) throw new IllegalArgumentException("Voisin invalide " + w + " du sommet " + v);
+                if (k > 0 && w <= voisin(v, k - 1)) throw new IllegalArgumentException("Voisins du sommet " + v + " non triés");
+                if (longueur <= 0) throw new IllegalArgumentException("Longueur invalide de l'arête " + v + " - " + w + " : " + longueur);
+            }
+        }
+        // les listes étant triées, la recherche dichotomique de poidsArete est possible
+        for (int v = 0; v < n; v++) {
+            for (int k = 0; k < degre(v); k++) {
+                int w = voisin(v, k);
+                if (poidsArete(w, v) != poidsVoisin(v, k)) throw new IllegalArgumentException("Arête " + v + " - " + w + " absente ou de longueur différente dans l'autre sens");
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return le nombre de sommets lu dans l'en-tête du tampon, vérifié avant toute allocation
+     */
+    private static int nbSommets(ByteBuffer tampon) {
+        int n = tampon.remaining() < EN_TETE * Integer.BYTES ? -1 : tampon.getInt(tampon.position());
+        if (n < 0 || (EN_TETE + n + 1L) * Integer.BYTES > tampon.remaining()) throw new IllegalArgumentException("En-tête de tampon incohérent");
+        return n;
+    }
+
+    /**
+     * Recopie un graphe hors du tas, dans un ByteBuffer direct
+     *
+     * @param g un graphe
+     */
+    public GrapheHorsTas(Graphe g) {
+        this(encoder(g, ByteBuffer.allocateDirect(taille(g)).order(ByteOrder.nativeOrder())).flip());
+    }
+
+    /**
+     * @param g un graphe
+     * @return le nombre d'octets nécessaires pour ranger g au format de GrapheHorsTas
+     */
+    static int taille(Graphe g) {
+        long entiers = EN_TETE + g.nbSommets() + 1 + 4L * g.nbAretes();
+        if (entiers > Integer.MAX_VALUE / Integer.BYTES) throw new IllegalArgumentException("Graphe trop grand pour un tampon : " + g.nbAretes() + " arêtes");
+        return (int) entiers * Integer.BYTES;
+    }
+
+    /**
+     * Écrit le graphe g au format de GrapheHorsTas dans le tampon, à partir de sa position courante
+     *
+     * @param g      un graphe
+     * @param tampon un tampon qui dispose d'au moins taille(g) octets
+     * @return le tampon, dont la position est juste après les données écrites
+     */
+    static ByteBuffer encoder(Graphe g, ByteBuffer tampon) {
+        int n = g.nbSommets();
+        tampon.putInt(n).putInt(g.nbAretes());
+        int debut = 0;
+        for (int v = 0; v <= n; v++) {
+            tampon.putInt(debut);
+            if (v < n) debut += g.degre(v);
+        }
+        for (int v = 0; v < n; v++) {
+            for (int k = 0; k < g.degre(v); k++) tampon.putInt(g.voisin(v, k));
+        }
+        for (int v = 0; v < n; v++) {
+            for (int k = 0; k < g.degre(v); k++) tampon.putInt(g.poidsVoisin(v, k));
+        }
+        return tampon;
+    }
+
+    private int debut(int v) {
+        return donnees.get(EN_TETE + v);
+    }
+
+    /**
+     * Recherche dichotomique de j parmi les voisins de i
+     *
+     * @return la position de j dans le tampon, -1 si j n'est pas voisin de i
+     */
+    private int position(int i, int j) {
+        int bas = cibles + debut(i);
+        int haut = cibles + debut(i + 1) - 1;
+        while (bas <= haut) {
+            int milieu = (bas + haut) >>> 1;
+            int x = donnees.get(milieu);
+            if (x < j) bas = milieu + 1;
+            else if (x > j) haut = milieu - 1;
+            else return milieu;
+        }
+        return -1;
+    }
+
+    @Override
+    protected boolean inscrireArete(int i, int j, int k) {
+        throw new UnsupportedOperationException("Graphe en lecture seule");
+    }
+
+    @Override
+    protected boolean effacerArete(int i, int j) {
+        throw new UnsupportedOperationException("Graphe en lecture seule");
+    }
+
+    @Override
+    public boolean existeArete(int i, int j) {
+        return position(i, j) >= 0;
+    }
+
+    @Override
+    public int poidsArete(int i, int j) {
+        int p = position(i, j);
+        return p < 0 ? 0 : donnees.get(p - cibles + poids);
+    }
+
+    @Override
+    public int nbAretes() {
+        return donnees.get(1);
+    }
+
+    @Override
+    public int degre(int v) {
+        return debut(v + 1) - debut(v);
+    }
+
+    @Override
+    public int voisin(int v, int k) {
+        return donnees.get(cibles + debut(v) + k);
+    }
+
+    @Override
+    public int poidsVoisin(int v, int k) {
+        return donnees.get(poids + debut(v) + k);
+    }
+
+    @Override
+    public void forEachVoisin(int v, IntConsumer action) {
+        for (int p = cibles + debut(v); p < cibles + debut(v + 1); p++) action.accept(donnees.get(p));
+    }
+
+    @Override
+    public ArrayList<Integer> voisins(int v) {
+        ArrayList<Integer> voisins = new ArrayList<>(degre(v));
+        forEachVoisin(v, voisins::add);
+        return voisins;
+    }
+
+    @Override
+    public IndexConnexite indexConnexite() {
+        IndexConnexite index = connexite;
+        if (index == null) {
+            synchronized (this) {
+                if (connexite == null) connexite = new IndexConnexite(this);
+                index = connexite;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public boolean memeClasse(int u, int v) {
+        IndexConnexite index = indexConnexite();
+        return index.classe(u) == index.classe(v);
+    }
+
+    @Override
+    public int nbCC() {
+        return indexConnexite().nbClasses();
+    }
+
+    @Override
+    public synchronized Isthmes indexIsthmes() {
+        if (isthmes == null) isthmes = new Isthmes(this);
+        return isthmes;
+    }
+}
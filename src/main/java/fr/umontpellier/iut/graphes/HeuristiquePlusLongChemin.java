@@ -0,0 +1,211 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Recherche approchée d'un long chemin (qui n'emprunte chaque arête qu'une fois), en O(m log m), pour les
+ * graphes trop grands pour la recherche exacte de RecherchePlusLongChemin.
+ * <p>
+ * Un graphe dont tous les sommets sont de degré pair se parcourt entièrement. On retire donc un ensemble
+ * d'arêtes légères qui rend pairs tous les sommets : dans un arbre couvrant de poids minimum (Kruskal),
+ * l'arête qui relie un sommet à son père est retirée lorsque le sous-arbre de ce sommet contient un nombre
+ * impair de sommets de degré impair. Le circuit eulérien de la plus lourde classe de connexité restante est
+ * ensuite coupé au sommet qui a le plus d'arêtes laissées de côté, puis prolongé à ses deux extrémités par
+ * des arêtes libres tant que c'est possible. S'il ne reste aucune arête (dans une forêt par exemple), le
+ * chemin part de la plus longue arête du graphe.
+ * <p>
+ * Le résultat est accompagné d'un majorant (voir RecherchePlusLongChemin.majorant) qui mesure l'écart
+ * possible avec le plus long chemin.
+ */
+public class HeuristiquePlusLongChemin {
+
+    private HeuristiquePlusLongChemin() {
+    }
+
+    /**
+     * Calcule un long chemin du graphe g
+     *
+     * @param g un graphe
+     * @return le chemin trouvé, sa valuation et un majorant de la valuation du plus long chemin de g (le
+     * chemin est prouvé optimal s'il atteint ce majorant)
+     */
+    public static ResultatChemin calculer(Graphe g) {
+        ListesAretes aretes = new ListesAretes(g);
+        int n = aretes.nbSommets();
+        int m = aretes.nbAretes();
+        if (m == 0) return new ResultatChemin(new ArrayList<>(), 0, 0, true);
+
+        // Arbre couvrant de poids minimum : arêtes triées par longueur croissante (puis par numéro)
+        int[] extremite = new int[2 * m];
+        for (int u = 0; u < n; u++) {
+            for (int i = aretes.debut[u]; i < aretes.debut[u + 1]; i++) {
+                if (u < aretes.cible[i]) {
+                    extremite[2 * aretes.arete[i]] = u;
+                    extremite[2 * aretes.arete[i] + 1] = aretes.cible[i];
+                }
+            }
+        }
+        long[] ordre = new long[m];
+        for (int e = 0; e < m; e++) ordre[e] = (long) aretes.poids[e] << 32 | e;
+        Arrays.sort(ordre);
+        UnionFind classes = new UnionFind(n);
+        boolean[] dansArbre = new boolean[m];
+        for (long cle : ordre) {
+            int e = (int) cle;
+            dansArbre[e] = classes.unir(extremite[2 * e], extremite[2 * e + 1]);
+        }
+
+        // Majorant : le meilleur des majorants des classes de connexité
+        int[] poidsClasse = new int[n];
+        int[] impairsClasse = new int[n];
+        int[] poidsMinClasse = new int[n];
+        Arrays.fill(poidsMinClasse, Integer.MAX_VALUE);
+        for (int e = 0; e < m; e++) {
+            int c = classes.trouver(extremite[2 * e]);
+            poidsClasse[c] += aretes.poids[e];
+            poidsMinClasse[c] = Math.min(poidsMinClasse[c], aretes.poids[e]);
+        }
+        for (int v = 0; v < n; v++) {
+            if (aretes.degre(v) % 2 != 0) impairsClasse[classes.trouver(v)]++;
+        }
+        int majorant = 0;
+        for (int c = 0; c < n; c++) {
+            if (poidsClasse[c] > 0) majorant = Math.max(majorant, RecherchePlusLongChemin.majorant(poidsClasse[c], impairsClasse[c], poidsMinClasse[c]));
+        }
+
+        // Parcours en largeur de la forêt couvrante, puis retrait des arêtes qui rendent tous les degrés pairs
+        int[] file = new int[n];
+        int[] areteDuPere = new int[n];
+        int[] pere = new int[n];
+        boolean[] marques = new boolean[n];
+        int queue = 0;
+        for (int s = 0; s < n; s++) {
+            if (marques[s]) continue;
+            marques[s] = true;
+            pere[s] = -1;
+            int tete = queue;
+            file[queue++] = s;
+            while (tete < queue) {
+                int x = file[tete++];
+                for (int i = aretes.debut[x]; i < aretes.debut[x + 1]; i++) {
+                    int y = aretes.cible[i];
+                    if (!marques[y] && dansArbre[aretes.arete[i]]) {
+                        marques[y] = true;
+                        pere[y] = x;
+                        areteDuPere[y] = aretes.arete[i];
+                        file[queue++] = y;
+                    }
+                }
+            }
+        }
+        boolean[] retirees = new boolean[m];
+        boolean[] impair = new boolean[n];
+        for (int v = 0; v < n; v++) impair[v] = aretes.degre(v) % 2 != 0;
+        for (int k = n - 1; k >= 0; k--) {
+            int v = file[k];
+            if (impair[v] && pere[v] >= 0) {
+                retirees[areteDuPere[v]] = true;
+                impair[pere[v]] = !impair[pere[v]];
+            }
+        }
+
+        // Plus lourde classe de connexité des arêtes restantes
+        Arrays.fill(marques, false);
+        int depart = extremite[2 * (int) ordre[m - 1]];
+        int taille = 0;
+        int poidsDepart = 0;
+        for (int s = 0; s < n; s++) {
+            if (marques[s]) continue;
+            marques[s] = true;
+            int tete = 0;
+            queue = 0;
+            file[queue++] = s;
+            int nb = 0;
+            int poids = 0;
+            while (tete < queue) {
+                int x = file[tete++];
+                for (int i = aretes.debut[x]; i < aretes.debut[x + 1]; i++) {
+                    if (retirees[aretes.arete[i]]) continue;
+                    int y = aretes.cible[i];
+                    if (x < y) {
+                        nb++;
+                        poids += aretes.poids[aretes.arete[i]];
+                    }
+                    if (!marques[y]) {
+                        marques[y] = true;
+                        file[queue++] = y;
+                    }
+                }
+            }
+            if (poids > poidsDepart) {
+                poidsDepart = poids;
+                taille = nb;
+                depart = s;
+            }
+        }
+
+        // Le chemin occupe les cases debutChemin à finChemin - 1, et s'étend dans les deux sens
+        int[] chemin = new int[2 * m + 3];
+        int debutChemin = m + 1;
+        int finChemin = debutChemin;
+        int valeur;
+        boolean[] surChemin = new boolean[m];
+        if (taille == 0) {
+            // Toutes les arêtes ont été retirées (forêt) : le chemin part de la plus longue arête
+            int e = (int) ordre[m - 1];
+            surChemin[e] = true;
+            chemin[finChemin++] = extremite[2 * e];
+            chemin[finChemin++] = extremite[2 * e + 1];
+            valeur = aretes.poids[e];
+        } else {
+            // Le parcours ignore les arêtes retirées et marque les siennes dans parcourues
+            boolean[] parcourues = retirees.clone();
+            int[] circuit = ParcoursEulerien.calculer(aretes, depart, taille, parcourues);
+            for (int e = 0; e < m; e++) surChemin[e] = parcourues[e] && !retirees[e];
+
+            // Coupure du circuit au sommet qui a le plus d'arêtes libres
+            int coupure = 0;
+            int meilleurLibre = -1;
+            for (int k = 0; k < taille; k++) {
+                int v = circuit[k];
+                int libre = 0;
+                for (int i = aretes.debut[v]; i < aretes.debut[v + 1]; i++) {
+                    if (!surChemin[aretes.arete[i]]) libre += aretes.poids[aretes.arete[i]];
+                }
+                if (libre > meilleurLibre) {
+                    meilleurLibre = libre;
+                    coupure = k;
+                }
+            }
+            for (int k = 0; k <= taille; k++) chemin[finChemin++] = circuit[(coupure + k) % taille];
+            valeur = poidsDepart;
+        }
+
+        // Prolongement aux deux extrémités par des arêtes qui ne sont pas encore sur le chemin
+        int[] prochain = new int[n];
+        System.arraycopy(aretes.debut, 0, prochain, 0, n);
+        for (int x = chemin[finChemin - 1]; ; ) {
+            while (prochain[x] < aretes.debut[x + 1] && surChemin[aretes.arete[prochain[x]]]) prochain[x]++;
+            if (prochain[x] == aretes.debut[x + 1]) break;
+            int i = prochain[x]++;
+            surChemin[aretes.arete[i]] = true;
+            valeur += aretes.poids[aretes.arete[i]];
+            x = aretes.cible[i];
+            chemin[finChemin++] = x;
+        }
+        for (int x = chemin[debutChemin]; ; ) {
+            while (prochain[x] < aretes.debut[x + 1] && surChemin[aretes.arete[prochain[x]]]) prochain[x]++;
+            if (prochain[x] == aretes.debut[x + 1]) break;
+            int i = prochain[x]++;
+            surChemin[aretes.arete[i]] = true;
+            valeur += aretes.poids[aretes.arete[i]];
+            x = aretes.cible[i];
+            chemin[--debutChemin] = x;
+        }
+
+        ArrayList<Integer> res = new ArrayList<>(finChemin - debutChemin);
+        for (int k = debutChemin; k < finChemin; k++) res.add(chemin[k]);
+        return new ResultatChemin(res, valeur, majorant, valeur == majorant);
+    }
+}
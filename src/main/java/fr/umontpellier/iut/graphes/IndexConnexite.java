@@ -0,0 +1,153 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Index des classes de connexité d'un graphe, calculé une fois pour toutes en temps linéaire
+ * (un parcours en largeur par classe). Il répond ensuite en temps constant à la question « u et v
+ * sont-ils dans la même classe ? ».
+ * <p>
+ * Les classes sont numérotées de 0 à nbClasses() - 1 dans l'ordre de leur plus petit sommet, et les
+ * sommets de chaque classe sont rangés par ordre croissant.
+ */
+public class IndexConnexite {
+    /**
+     * Numéro de la classe de connexité de chaque sommet
+     */
+    private final int[] classe;
+    /**
+     * Sommets regroupés par classe : la classe c occupe les cases debut[c] à debut[c + 1] - 1
+     */
+    private final int[] sommets;
+    /**
+     * Indice de la première case de chaque classe dans le tableau sommets
+     */
+    private final int[] debut;
+
+    /**
+     * Calcule les classes de connexité du graphe g
+     *
+     * @param g un graphe
+     */
+    public IndexConnexite(Graphe g) {
+        this(etiqueter(g));
+    }
+
+    /**
+     * Construit l'index à partir d'un étiquetage déjà calculé
+     *
+     * @param classe le numéro de la classe de chaque sommet, les classes étant numérotées à partir de 0 dans
+     *               l'ordre de leur plus petit sommet
+     */
+    IndexConnexite(int[] classe) {
+        int n = classe.length;
+        int nbClasses = 0;
+        for (int c : classe) nbClasses = Math.max(nbClasses, c + 1);
+        this.classe = classe;
+        sommets = new int[n];
+
+        // Regroupement des sommets par classe, par ordre croissant (tri par dénombrement)
+        debut = new int[nbClasses + 1];
+        for (int v = 0; v < n; v++) debut[classe[v] + 1]++;
+        for (int c = 0; c < nbClasses; c++) debut[c + 1] += debut[c];
+        int[] position = new int[nbClasses];
+        System.arraycopy(debut, 0, position, 0, nbClasses);
+        for (int v = 0; v < n; v++) sommets[position[classe[v]]++] = v;
+    }
+
+    /**
+     * Étiquetage des sommets de g par parcours en largeur
+     *
+     * @return le numéro de la classe de chaque sommet
+     */
+    private static int[] etiqueter(Graphe g) {
+        int n = g.nbSommets();
+        int[] classe = new int[n];
+        int[] file = new int[n];
+        boolean[] marques = new boolean[n];
+        int nbClasses = 0;
+        for (int s = 0; s < n; s++) {
+            if (marques[s]) continue;
+            int tete = 0;
+            int queue = 0;
+            file[queue++] = s;
+            marques[s] = true;
+            while (tete < queue) {
+                int x = file[tete++];
+                classe[x] = nbClasses;
+                for (int k = 0; k < g.degre(x); k++) {
+                    int y = g.voisin(x, k);
+                    if (!marques[y]) {
+                        marques[y] = true;
+                        file[queue++] = y;
+                    }
+                }
+            }
+            nbClasses++;
+        }
+        return classe;
+    }
+
+    /**
+     * @return le nombre de classes de connexité
+     */
+    public int nbClasses() {
+        return debut.length - 1;
+    }
+
+    /**
+     * @param v un entier représentant un sommet
+     * @return le numéro de la classe de connexité de v
+     */
+    public int classe(int v) {
+        return classe[v];
+    }
+
+    /**
+     * @param u un entier représentant un sommet
+     * @param v un entier représentant un sommet
+     * @return vrai si u et v sont dans la même classe de connexité, faux sinon
+     */
+    public boolean memeClasse(int u, int v) {
+        return classe[u] == classe[v];
+    }
+
+    /**
+     * @param c un numéro de classe
+     * @return le nombre de sommets de la classe c
+     */
+    public int taille(int c) {
+        return debut[c + 1] - debut[c];
+    }
+
+    /**
+     * @param c un numéro de classe
+     * @param k un indice compris entre 0 et taille(c) - 1
+     * @return le k-ième sommet de la classe c (par ordre croissant)
+     */
+    public int sommet(int c, int k) {
+        return sommets[debut[c] + k];
+    }
+
+    /**
+     * Inverse de sommet(c, k), par recherche dichotomique parmi les sommets de la classe
+     *
+     * @param c un numéro de classe
+     * @param v un sommet de la classe c
+     * @return l'indice k tel que sommet(c, k) == v
+     */
+    public int rang(int c, int v) {
+        return Arrays.binarySearch(sommets, debut[c], debut[c + 1], v) - debut[c];
+    }
+
+    /**
+     * @param c un numéro de classe
+     * @return la liste des sommets de la classe c, par ordre croissant
+     */
+    public ArrayList<Integer> sommets(int c) {
+        ArrayList<Integer> res = new ArrayList<>(taille(c));
+        for (int i = debut[c]; i < debut[c + 1]; i++) res.add(sommets[i]);
+        return res;
+    }
+}
@@ -0,0 +1,99 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Ensemble des isthmes d'un graphe, calculé en un seul parcours en profondeur (algorithme de Tarjan,
+ * en O(n + m)).
+ * <p>
+ * Chaque sommet x reçoit son rang de découverte ordre[x] et la valeur bas[x], plus petit rang atteignable
+ * depuis le sous-arbre de x en empruntant au plus une arête qui ne fait pas partie de l'arbre du
+ * parcours. L'arête de l'arbre entre x et son père p est un isthme si et seulement si bas[x] > ordre[p].
+ * Le parcours est itératif pour supporter les très grands graphes.
+ */
+public class Isthmes {
+    /**
+     * Isthmes codés par (min << 32) | max de leurs extrémités, triés par ordre croissant
+     */
+    private final long[] cles;
+
+    /**
+     * Calcule les isthmes du graphe g
+     *
+     * @param g un graphe
+     */
+    public Isthmes(Graphe g) {
+        int n = g.nbSommets();
+        int[] ordre = new int[n]; // 0 pour un sommet non encore découvert
+        int[] bas = new int[n];
+        int[] pere = new int[n];
+        int[] curseur = new int[n];
+        int[] pile = new int[n];
+        long[] trouves = new long[Math.max(n - 1, 0)]; // une forêt couvrante a au plus n - 1 arêtes
+        int nbTrouves = 0;
+        int rang = 0;
+
+        for (int s = 0; s < n; s++) {
+            if (ordre[s] != 0 || g.degre(s) == 0) continue;
+            int sommet = 0;
+            pile[sommet] = s;
+            pere[s] = -1;
+            ordre[s] = bas[s] = ++rang;
+            while (sommet >= 0) {
+                int x = pile[sommet];
+                if (curseur[x] < g.degre(x)) {
+                    int y = g.voisin(x, curseur[x]++);
+                    if (ordre[y] == 0) {
+                        pere[y] = x;
+                        ordre[y] = bas[y] = ++rang;
+                        pile[++sommet] = y;
+                    } else if (y != pere[x]) {
+                        bas[x] = Math.min(bas[x], ordre[y]);
+                    }
+                } else {
+                    sommet--;
+                    int p = pere[x];
+                    if (p != -1) {
+                        bas[p] = Math.min(bas[p], bas[x]);
+                        if (bas[x] > ordre[p]) trouves[nbTrouves++] = cle(p, x);
+                    }
+                }
+            }
+        }
+        cles = Arrays.copyOf(trouves, nbTrouves);
+        Arrays.sort(cles);
+    }
+
+    /**
+     * @return le code de l'arête entre u et v
+     */
+    private static long cle(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+    }
+
+    /**
+     * @param u un entier représentant un sommet
+     * @param v un entier représentant un sommet
+     * @return vrai si (u,v) est un isthme, faux sinon
+     */
+    public boolean estUnIsthme(int u, int v) {
+        return Arrays.binarySearch(cles, cle(u, v)) >= 0;
+    }
+
+    /**
+     * @return le nombre d'isthmes du graphe
+     */
+    public int nbIsthmes() {
+        return cles.length;
+    }
+
+    /**
+     * @return la liste des isthmes, chacun donné par ses extrémités {u, v} avec u < v
+     */
+    public ArrayList<int[]> liste() {
+        ArrayList<int[]> res = new ArrayList<>(cles.length);
+        for (long c : cles) res.add(new int[]{(int) (c >>> 32), (int) c});
+        return res;
+    }
+}
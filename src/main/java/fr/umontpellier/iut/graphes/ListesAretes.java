@@ -0,0 +1,99 @@
+package fr.umontpellier.iut.graphes;
+
+/**
+ * Copie compacte et figée d'un graphe, dont chaque arête reçoit un numéro, utilisée par les algorithmes
+ * qui marquent les arêtes empruntées.
+ * <p>
+ * Les voisins du sommet v occupent les cases debut[v] à debut[v + 1] - 1 des tableaux cible et arete,
+ * par ordre croissant. Les arêtes sont numérotées de 0 à nbAretes() - 1 par ordre croissant de (u, v)
+ * avec u < v.
+ */
+class ListesAretes {
+    /**
+     * Indice de la première case consacrée à chaque sommet (n + 1 cases)
+     */
+    final int[] debut;
+    /**
+     * Sommet atteint par chaque case des listes d'adjacence
+     */
+    final int[] cible;
+    /**
+     * Numéro de l'arête correspondant à chaque case des listes d'adjacence
+     */
+    final int[] arete;
+    /**
+     * Longueur de chaque arête
+     */
+    final int[] poids;
+
+    /**
+     * Recopie le graphe g
+     *
+     * @param g un graphe
+     */
+    ListesAretes(Graphe g) {
+        int n = g.nbSommets();
+        debut = new int[n + 1];
+        int m = 0;
+        for (int u = 0; u < n; u++) {
+            debut[u + 1] = debut[u] + g.degre(u);
+            for (int k = 0; k < g.degre(u); k++) {
+                if (u < g.voisin(u, k)) m++;
+            }
+        }
+
+        // Numérotation des arêtes par ordre croissant de (u, v) avec u < v
+        int[] extremite1 = new int[m];
+        int[] extremite2 = new int[m];
+        poids = new int[m];
+        int e = 0;
+        for (int u = 0; u < n; u++) {
+            for (int k = 0; k < g.degre(u); k++) {
+                int v = g.voisin(u, k);
+                if (u < v) {
+                    extremite1[e] = u;
+                    extremite2[e] = v;
+                    poids[e] = g.poidsVoisin(u, k);
+                    e++;
+                }
+            }
+        }
+
+        // Remplissage des listes d'adjacence : parcourir les arêtes dans l'ordre de leur numéro
+        // place les voisins de chaque sommet par ordre croissant
+        cible = new int[2 * m];
+        arete = new int[2 * m];
+        int[] position = new int[n];
+        System.arraycopy(debut, 0, position, 0, n);
+        for (e = 0; e < m; e++) {
+            int u = extremite1[e];
+            int v = extremite2[e];
+            cible[position[u]] = v;
+            arete[position[u]++] = e;
+            cible[position[v]] = u;
+            arete[position[v]++] = e;
+        }
+    }
+
+    /**
+     * @return le nombre de sommets
+     */
+    int nbSommets() {
+        return debut.length - 1;
+    }
+
+    /**
+     * @return le nombre d'arêtes
+     */
+    int nbAretes() {
+        return poids.length;
+    }
+
+    /**
+     * @param v un sommet
+     * @return le degré de v
+     */
+    int degre(int v) {
+        return debut[v + 1] - debut[v];
+    }
+}
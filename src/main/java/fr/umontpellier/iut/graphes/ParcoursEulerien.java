@@ -0,0 +1,81 @@
+package fr.umontpellier.iut.graphes;
+
+/**
+ * Construction d'un parcours eulérien (chemin qui emprunte chaque arête exactement une fois) par
+ * l'algorithme de Hierholzer, en O(n + m).
+ * <p>
+ * On avance depuis le départ en empruntant à chaque fois la première arête libre du sommet courant, en
+ * empilant les sommets atteints. Un sommet dont toutes les arêtes sont empruntées est dépilé et placé en
+ * tête du parcours : les cycles laissés de côté sont ainsi greffés au bon endroit lorsque l'on repart
+ * d'un sommet qui a encore des arêtes libres. Le parcours est entièrement itératif.
+ */
+public class ParcoursEulerien {
+
+    private ParcoursEulerien() {
+    }
+
+    /**
+     * Construit le parcours eulérien de la classe de connexité de depart. Si la classe a deux sommets de
+     * degré impair, depart doit être l'un d'eux.
+     *
+     * @param aretes le graphe, dont la classe de depart a au plus deux sommets de degré impair
+     * @param depart le premier sommet du parcours
+     * @param taille le nombre d'arêtes de la classe de depart
+     * @return les taille + 1 sommets du parcours, dans l'ordre
+     */
+    static int[] calculer(ListesAretes aretes, int depart, int taille) {
+        return calculer(aretes, depart, taille, new boolean[aretes.nbAretes()]);
+    }
+
+    /**
+     * Construit le parcours eulérien de la classe de connexité de depart dans le graphe des arêtes qui ne
+     * sont pas encore marquées dans empruntees.
+     *
+     * @param aretes     le graphe, dont les arêtes sont numérotées
+     * @param depart     le premier sommet du parcours
+     * @param taille     le nombre d'arêtes non marquées de la classe de depart
+     * @param empruntees les arêtes à ignorer, auxquelles s'ajoutent celles du parcours
+     * @return les taille + 1 sommets du parcours, dans l'ordre
+     */
+    static int[] calculer(ListesAretes aretes, int depart, int taille, boolean[] empruntees) {
+        int[] prochain = new int[aretes.nbSommets()]; // première case pas encore examinée de chaque sommet
+        System.arraycopy(aretes.debut, 0, prochain, 0, prochain.length);
+        int[] pile = new int[taille + 1];
+        int[] parcours = new int[taille + 1];
+        int fin = taille + 1; // le parcours est rempli depuis la fin
+        int sommet = 0;
+        pile[0] = depart;
+        while (sommet >= 0) {
+            int x = pile[sommet];
+            while (prochain[x] < aretes.debut[x + 1] && empruntees[aretes.arete[prochain[x]]]) prochain[x]++;
+            if (prochain[x] < aretes.debut[x + 1]) {
+                int i = prochain[x]++;
+                empruntees[aretes.arete[i]] = true;
+                pile[++sommet] = aretes.cible[i];
+            } else {
+                parcours[--fin] = x;
+                sommet--;
+            }
+        }
+        return parcours;
+    }
+
+    /**
+     * Construit un parcours eulérien du graphe g. Il part du plus petit sommet de degré impair s'il y en
+     * a, du plus petit sommet sinon, et emprunte à chaque fois le plus petit voisin possible.
+     *
+     * @param g un graphe
+     * @return les sommets d'un parcours eulérien de g, dans l'ordre (tableau vide si g n'en possède pas)
+     */
+    public static int[] calculer(Graphe g) {
+        if (!g.existeParcoursEulerien()) return new int[0];
+        int depart = 0;
+        for (int v = 0; v < g.nbSommets(); v++) {
+            if (g.degre(v) % 2 != 0) {
+                depart = v;
+                break;
+            }
+        }
+        return calculer(new ListesAretes(g), depart, g.nbAretes());
+    }
+}
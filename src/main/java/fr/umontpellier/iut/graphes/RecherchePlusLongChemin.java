@@ -0,0 +1,926 @@
+package fr.umontpellier.iut.graphes;
+
+import java.io.Serial;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Recherche exacte du plus long chemin d'un graphe, c'est-à-dire du parcours de valuation maximale
+ * qui ne repasse jamais deux fois par la même arête.
+ * <p>
+ * Le graphe est d'abord recopié une seule fois sous forme de listes d'adjacence compactes où chaque
+ * arête reçoit un numéro (ListesAretes). L'exploration est ensuite un parcours en profondeur itératif
+ * qui marque les arêtes empruntées dans un masque de bits et revient en arrière en les démarquant (aucune copie du
+ * graphe). Une branche est abandonnée dès que la valuation courante augmentée de la valuation des
+ * arêtes encore libres de la composante ne peut plus dépasser le meilleur chemin connu. Cette borne
+ * est affinée par la parité : si le graphe des arêtes libres a k sommets de degré impair, un chemin
+ * qui le prolonge laisse de côté au moins (k - 2) / 2 de ces arêtes.
+ * <p>
+ * Une classe de connexité qui a au plus deux sommets de degré impair n'est pas explorée : son parcours
+ * eulérien, construit en temps linéaire, emprunte toutes ses arêtes.
+ * <p>
+ * Une classe de connexité qui a des isthmes est découpée en blocs 2-arête-connexes (ArbreDesBlocs). Un
+ * chemin traverse chaque isthme au plus une fois : il parcourt une chaîne de l'arbre des blocs et
+ * visite chaque bloc en un seul morceau, qui relie deux portails du bloc (extrémités d'isthmes) ou
+ * commence ou finit librement. Chaque bloc est exploré exhaustivement depuis chacun de ses portails, en
+ * retenant le meilleur chemin vers chaque autre portail et le meilleur chemin de fin libre, puis les
+ * blocs sont combinés des feuilles vers la racine de l'arbre (programmation dynamique). La recherche
+ * exponentielle est ainsi confinée à l'intérieur des blocs, qui sont petits dans un réseau de joueur.
+ * <p>
+ * La recherche peut aussi être répartie entre plusieurs fils d'exécution (calculerEnParallele) : chaque
+ * classe de connexité, ou chaque sommet de départ d'une classe explorée sommet par sommet, devient une
+ * tâche d'un ForkJoinPool. Les tâches partagent la meilleure valuation trouvée et le résultat est
+ * identique à celui du calcul séquentiel.
+ */
+public class RecherchePlusLongChemin {
+    /**
+     * Copie du graphe dont les arêtes sont numérotées
+     */
+    private final ListesAretes aretes;
+    /**
+     * debut[v] est l'indice de la première case des tableaux cible et arete consacrée au sommet v,
+     * les voisins de v occupent les cases debut[v] à debut[v + 1] - 1 (par ordre croissant)
+     */
+    private final int[] debut;
+    /**
+     * Sommet atteint par chaque case des listes d'adjacence
+     */
+    private final int[] cible;
+    /**
+     * Numéro de l'arête correspondant à chaque case des listes d'adjacence
+     */
+    private final int[] arete;
+    /**
+     * Longueur de chaque arête
+     */
+    private final int[] poids;
+    /**
+     * Classes de connexité du graphe
+     */
+    private final IndexConnexite index;
+    /**
+     * Somme des longueurs des arêtes de chaque classe de connexité
+     */
+    private final int[] poidsClasse;
+    /**
+     * Longueur de la plus courte arête de chaque classe de connexité
+     */
+    private final int[] poidsMinClasse;
+    /**
+     * Nombre de sommets de degré impair de chaque classe de connexité
+     */
+    private final int[] impairsClasse;
+    /**
+     * Nombre d'isthmes de chaque classe de connexité
+     */
+    private final int[] isthmesClasse;
+    /**
+     * Décomposition du graphe en blocs 2-arête-connexes
+     */
+    private final ArbreDesBlocs blocs;
+
+    /**
+     * Masque des arêtes empruntées par le chemin en cours d'exploration
+     */
+    private long[] utilisees;
+    /**
+     * Sommets du chemin en cours d'exploration
+     */
+    private int[] pile;
+    /**
+     * Prochaine case de la liste d'adjacence à essayer pour chaque sommet du chemin courant
+     */
+    private int[] curseur;
+    /**
+     * Arête empruntée pour atteindre chaque sommet du chemin courant
+     */
+    private int[] areteEmpruntee;
+    /**
+     * Nombre d'arêtes libres incidentes à chaque sommet
+     */
+    private int[] degreLibre;
+    /**
+     * Résultats de la recherche pour chaque bloc de la classe de connexité en cours de traitement
+     */
+    private Bloc[] etatBlocs;
+    /**
+     * Rang de chaque sommet parmi les portails du bloc en cours d'exploration (-1 s'il n'en est pas un)
+     */
+    private int[] numeroPortail;
+    /**
+     * Plus petite des valeurs que l'exploration depuis un portail cherche encore à améliorer
+     */
+    private int seuilPortail;
+
+    /**
+     * Plus long chemin trouvé
+     */
+    private int[] meilleur;
+    /**
+     * Nombre de sommets du plus long chemin trouvé
+     */
+    private int tailleMeilleur;
+    /**
+     * Valuation du plus long chemin trouvé
+     */
+    private int valeurMeilleur;
+    /**
+     * Meilleure valuation trouvée par l'ensemble des tâches du calcul parallèle (null en séquentiel)
+     */
+    private final AtomicInteger valeurPartagee;
+    /**
+     * Vrai si la recherche est limitée dans le temps
+     */
+    private boolean limitee;
+    /**
+     * Instant (selon System.nanoTime) auquel une recherche limitée doit s'arrêter
+     */
+    private long echeance;
+    /**
+     * Nombre de pas de l'exploration depuis la dernière consultation de l'horloge
+     */
+    private int pas;
+    /**
+     * Vrai si la recherche a été arrêtée avant d'avoir prouvé que le meilleur chemin est optimal
+     */
+    private boolean interrompue;
+
+    /**
+     * Prépare la recherche sur le graphe g (le graphe n'est plus consulté ensuite)
+     *
+     * @param g le graphe dans lequel chercher le plus long chemin
+     */
+    public RecherchePlusLongChemin(Graphe g) {
+        int n = g.nbSommets();
+        valeurPartagee = null;
+        aretes = new ListesAretes(g);
+        debut = aretes.debut;
+        cible = aretes.cible;
+        arete = aretes.arete;
+        poids = aretes.poids;
+
+        // Caractéristiques de chaque classe de connexité utilisées par les bornes
+        index = g.indexConnexite();
+        poidsClasse = new int[index.nbClasses()];
+        poidsMinClasse = new int[index.nbClasses()];
+        impairsClasse = new int[index.nbClasses()];
+        isthmesClasse = new int[index.nbClasses()];
+        Arrays.fill(poidsMinClasse, Integer.MAX_VALUE);
+        for (int u = 0; u < n; u++) {
+            int c = index.classe(u);
+            if ((debut[u + 1] - debut[u]) % 2 != 0) impairsClasse[c]++;
+            for (int i = debut[u]; i < debut[u + 1]; i++) {
+                if (cible[i] > u) poidsClasse[c] += poids[arete[i]]; // chaque arête comptée une fois
+                poidsMinClasse[c] = Math.min(poidsMinClasse[c], poids[arete[i]]);
+            }
+        }
+        blocs = new ArbreDesBlocs(aretes, g.indexIsthmes());
+        for (int b = 0; b < blocs.nbBlocs(); b++) isthmesClasse[index.classe(blocs.sommet(b, 0))] += blocs.nbPonts(b);
+    }
+
+    /**
+     * Prépare une recherche qui partage le graphe d'une autre, pour un fil d'exécution du calcul parallèle
+     *
+     * @param modele         la recherche dont on reprend le graphe
+     * @param valeurPartagee la meilleure valuation trouvée par l'ensemble des tâches
+     */
+    private RecherchePlusLongChemin(RecherchePlusLongChemin modele, AtomicInteger valeurPartagee) {
+        this.valeurPartagee = valeurPartagee;
+        aretes = modele.aretes;
+        debut = modele.debut;
+        cible = modele.cible;
+        arete = modele.arete;
+        poids = modele.poids;
+        index = modele.index;
+        poidsClasse = modele.poidsClasse;
+        poidsMinClasse = modele.poidsMinClasse;
+        impairsClasse = modele.impairsClasse;
+        isthmesClasse = modele.isthmesClasse;
+        blocs = modele.blocs;
+        preparer();
+    }
+
+    /**
+     * Alloue l'état de l'exploration
+     */
+    private void preparer() {
+        int m = poids.length;
+        utilisees = new long[(m + 63) >>> 6];
+        pile = new int[m + 1];
+        curseur = new int[m + 1];
+        areteEmpruntee = new int[m + 1];
+        meilleur = new int[m + 1];
+        degreLibre = new int[debut.length - 1];
+        for (int v = 0; v < degreLibre.length; v++) degreLibre[v] = debut[v + 1] - debut[v];
+        etatBlocs = new Bloc[blocs.nbBlocs()];
+        numeroPortail = new int[degreLibre.length];
+        Arrays.fill(numeroPortail, -1);
+        tailleMeilleur = 0;
+        valeurMeilleur = 0;
+    }
+
+    /**
+     * Calcule le plus long chemin du graphe. Les classes de connexité sont examinées dans l'ordre de
+     * leur plus petit sommet et, en cas d'égalité entre deux classes, c'est la première qui l'emporte.
+     * Dans une classe, on préfère à valuation égale un chemin dont une extrémité est la plus petite
+     * possible, et le chemin part de cette extrémité.
+     *
+     * @return une liste de sommets formant le plus long chemin dans le graphe (vide si le graphe n'a
+     * pas d'arête)
+     */
+    public ArrayList<Integer> calculer() {
+        limitee = false;
+        interrompue = false;
+        return rechercher();
+    }
+
+    /**
+     * Calcule le plus long chemin du graphe en temps limité. Si le temps imparti est écoulé ou si le fil
+     * d'exécution est interrompu, la recherche s'arrête et renvoie le meilleur chemin trouvé jusque-là
+     * (le statut d'interruption du fil est conservé).
+     *
+     * @param budget le temps imparti à la recherche
+     * @return le meilleur chemin trouvé, et s'il est prouvé optimal (c'est alors celui que renvoie calculer())
+     */
+    public ResultatChemin calculer(Duration budget) {
+        limitee = true;
+        echeance = System.nanoTime() + budget.toNanos();
+        pas = 0;
+        interrompue = Thread.currentThread().isInterrupted();
+        ArrayList<Integer> chemin = rechercher();
+        limitee = false;
+        if (!interrompue) return new ResultatChemin(chemin, valeurMeilleur, valeurMeilleur, true);
+        int borne = valeurMeilleur;
+        for (int c = 0; c < index.nbClasses(); c++) {
+            borne = Math.max(borne, majorant(poidsClasse[c], impairsClasse[c], poidsMinClasse[c]));
+        }
+        return new ResultatChemin(chemin, valeurMeilleur, borne, false);
+    }
+
+    /**
+     * Majorant de la valuation d'un chemin dans un ensemble d'arêtes : un chemin a au plus deux extrémités
+     * de degré impair, il laisse donc de côté au moins (impairs - 2) / 2 arêtes (une par paire de sommets
+     * impairs restants), chacune au moins aussi longue que la plus courte.
+     *
+     * @param poids    la somme des longueurs des arêtes
+     * @param impairs  le nombre de sommets de degré impair du graphe de ces arêtes
+     * @param poidsMin la longueur de la plus courte de ces arêtes
+     * @return un majorant de la valuation d'un chemin qui n'emprunte que ces arêtes
+     */
+    static int majorant(int poids, int impairs, int poidsMin) {
+        return impairs > 2 ? poids - (impairs - 2) / 2 * poidsMin : poids;
+    }
+
+    /**
+     * Recherche séquentielle du plus long chemin, qui s'arrête dès que interrompue devient vrai
+     */
+    private ArrayList<Integer> rechercher() {
+        preparer();
+        int borneGlobale = 0;
+        for (int c = 0; c < index.nbClasses(); c++) borneGlobale = Math.max(borneGlobale, poidsClasse[c]);
+
+        for (int c = 0; c < index.nbClasses() && valeurMeilleur < borneGlobale && !interrompue; c++) {
+            if (poidsClasse[c] <= valeurMeilleur) continue;
+            if (!parSommet(c)) {
+                resoudreClasse(c);
+                continue;
+            }
+            for (int k = 0; k < index.taille(c) && poidsClasse[c] > valeurMeilleur && !interrompue; k++) {
+                int s = index.sommet(c, k);
+                if (debut[s] < debut[s + 1]) explorer(s, poidsClasse[c], impairsClasse[c], poidsMinClasse[c], null, 0);
+            }
+        }
+        etatBlocs = null;
+        return liste(meilleur, tailleMeilleur);
+    }
+
+    /**
+     * Calcule le plus long chemin du graphe en répartissant la recherche sur les fils d'exécution du
+     * ForkJoinPool commun. Le résultat est le même que celui de calculer().
+     *
+     * @return une liste de sommets formant le plus long chemin dans le graphe (vide si le graphe n'a
+     * pas d'arête)
+     */
+    public ArrayList<Integer> calculerEnParallele() {
+        return calculerEnParallele(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calcule le plus long chemin du graphe en répartissant la recherche sur les fils d'exécution de
+     * pool. Le résultat est le même que celui de calculer().
+     *
+     * @param pool le ForkJoinPool qui exécute les tâches
+     * @return une liste de sommets formant le plus long chemin dans le graphe (vide si le graphe n'a
+     * pas d'arête)
+     */
+    public ArrayList<Integer> calculerEnParallele(ForkJoinPool pool) {
+        // Les tâches, dans l'ordre où le calcul séquentiel les examine
+        int nbTaches = 0;
+        for (int c = 0; c < index.nbClasses(); c++) {
+            if (poidsClasse[c] == 0) continue;
+            nbTaches += parSommet(c) ? index.taille(c) : 1;
+        }
+        int[] tacheClasse = new int[nbTaches];
+        int[] tacheDepart = new int[nbTaches]; // -1 si la classe est traitée d'un seul tenant
+        nbTaches = 0;
+        for (int c = 0; c < index.nbClasses(); c++) {
+            if (poidsClasse[c] == 0) continue;
+            if (!parSommet(c)) {
+                tacheClasse[nbTaches] = c;
+                tacheDepart[nbTaches++] = -1;
+                continue;
+            }
+            for (int k = 0; k < index.taille(c); k++) {
+                tacheClasse[nbTaches] = c;
+                tacheDepart[nbTaches++] = index.sommet(c, k);
+            }
+        }
+
+        AtomicInteger valeurPartagee = new AtomicInteger();
+        // Recherches libres, réutilisées d'une tâche à l'autre : il y en a au plus une par fil d'exécution
+        // occupé, et elles disparaissent avec la file à la fin du calcul
+        ConcurrentLinkedQueue<RecherchePlusLongChemin> recherches = new ConcurrentLinkedQueue<>();
+        int[] valeurs = new int[nbTaches];
+        int[][] chemins = new int[nbTaches][];
+        pool.invoke(new Lot(0, nbTaches, t -> {
+            int c = tacheClasse[t];
+            valeurs[t] = -1;
+            // une tâche qui ne peut pas atteindre la meilleure valuation connue est inutile ; à égalité,
+            // elle peut encore l'emporter si elle précède les autres
+            if (poidsClasse[c] < valeurPartagee.get()) return;
+            RecherchePlusLongChemin r = recherches.poll();
+            if (r == null) r = new RecherchePlusLongChemin(this, valeurPartagee);
+            r.valeurMeilleur = 0;
+            r.tailleMeilleur = 0;
+            if (tacheDepart[t] < 0) r.resoudreClasse(c);
+            else r.explorer(tacheDepart[t], poidsClasse[c], impairsClasse[c], poidsMinClasse[c], null, 0);
+            if (r.valeurMeilleur >= valeurPartagee.get()) {
+                valeurs[t] = r.valeurMeilleur;
+                chemins[t] = Arrays.copyOf(r.meilleur, r.tailleMeilleur);
+            }
+            recherches.offer(r);
+        }));
+
+        // La première tâche de valuation maximale l'emporte, comme dans le calcul séquentiel
+        int gagnante = -1;
+        for (int t = 0; t < nbTaches; t++) {
+            if (valeurs[t] > 0 && (gagnante < 0 || valeurs[t] > valeurs[gagnante])) gagnante = t;
+        }
+        return gagnante < 0 ? new ArrayList<>() : liste(chemins[gagnante], chemins[gagnante].length);
+    }
+
+    /**
+     * @return vrai si la classe c est explorée sommet de départ par sommet de départ, faux si elle est
+     * traitée d'un seul tenant (parcours eulérien ou arbre des blocs)
+     */
+    private boolean parSommet(int c) {
+        return impairsClasse[c] > 2 && isthmesClasse[c] == 0;
+    }
+
+    /**
+     * Traite d'un seul tenant une classe qui n'est pas explorée sommet par sommet
+     */
+    private void resoudreClasse(int c) {
+        // Classe eulérienne : le parcours eulérien emprunte toutes ses arêtes, rien ne peut faire mieux
+        if (impairsClasse[c] <= 2) garderParcoursEulerien(c);
+        else resoudreParBlocs(c);
+    }
+
+    /**
+     * @return la liste des taille premiers sommets de chemin
+     */
+    private static ArrayList<Integer> liste(int[] chemin, int taille) {
+        ArrayList<Integer> res = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) res.add(chemin[i]);
+        return res;
+    }
+
+    /**
+     * Valuation en dessous de laquelle une branche de la recherche du meilleur chemin est abandonnée :
+     * le meilleur chemin de la tâche, et la meilleure valuation des autres tâches (qu'il suffit d'égaler)
+     */
+    private int seuil() {
+        return valeurPartagee == null ? valeurMeilleur : Math.max(valeurMeilleur, valeurPartagee.get() - 1);
+    }
+
+    /**
+     * Annonce aux autres tâches la valuation du meilleur chemin de la tâche
+     */
+    private void partager() {
+        if (valeurPartagee != null) valeurPartagee.accumulateAndGet(valeurMeilleur, Math::max);
+    }
+
+    /**
+     * Retient le parcours eulérien de la classe c comme meilleur chemin. Il part du plus petit sommet de
+     * degré impair de la classe s'il y en a, de son plus petit sommet sinon.
+     *
+     * @param c une classe de connexité ayant au plus deux sommets de degré impair et au moins une arête
+     */
+    private void garderParcoursEulerien(int c) {
+        int depart = index.sommet(c, 0);
+        for (int k = 0; k < index.taille(c); k++) {
+            if (aretes.degre(index.sommet(c, k)) % 2 != 0) {
+                depart = index.sommet(c, k);
+                break;
+            }
+        }
+        int nbAretes = 0;
+        for (int k = 0; k < index.taille(c); k++) nbAretes += aretes.degre(index.sommet(c, k));
+        int[] parcours = ParcoursEulerien.calculer(aretes, depart, nbAretes / 2);
+        System.arraycopy(parcours, 0, meilleur, 0, parcours.length);
+        tailleMeilleur = parcours.length;
+        valeurMeilleur = poidsClasse[c];
+        partager();
+    }
+
+    /**
+     * Calcule le plus long chemin de la classe c, qui a des isthmes, en combinant ses blocs le long de
+     * l'arbre des blocs, et le retient s'il dépasse le meilleur chemin connu
+     *
+     * @param c une classe de connexité
+     */
+    private void resoudreParBlocs(int c) {
+        // Parcours en largeur de l'arbre des blocs depuis le bloc du plus petit sommet de la classe
+        int[] ordre = new int[index.taille(c)];
+        int nbBlocs = 0;
+        int racine = blocs.bloc(index.sommet(c, 0));
+        ordre[nbBlocs++] = racine;
+        etatBlocs[racine] = new Bloc(-1, -1);
+        for (int t = 0; t < nbBlocs; t++) {
+            int b = ordre[t];
+            for (int k = 0; k < blocs.nbPonts(b); k++) {
+                int e = blocs.pontArete(b, k);
+                // les isthmes sont mis de côté : chaque bloc est ensuite exploré seul
+                utilisees[e >>> 6] |= 1L << e;
+                degreLibre[blocs.pontSommet(b, k)]--;
+                if (e == etatBlocs[b].areteParent) continue;
+                etatBlocs[fils(b, k)] = new Bloc(e, blocs.pontVoisin(b, k));
+                ordre[nbBlocs++] = fils(b, k);
+            }
+        }
+
+        // Combinaison des blocs, des feuilles vers la racine
+        Candidat candidat = new Candidat();
+        for (int t = nbBlocs - 1; t >= 0; t--) traiterBloc(ordre[t], candidat);
+        if (!interrompue && candidat.valeur > valeurMeilleur) {
+            valeurMeilleur = candidat.valeur;
+            tailleMeilleur = construire(candidat, meilleur);
+            partager();
+        }
+
+        // Chemins contenus dans un seul bloc, sans extrémité imposée
+        for (int t = 0; t < nbBlocs; t++) {
+            int b = ordre[t];
+            int restant = 0;
+            int impairs = 0;
+            int poidsMin = Integer.MAX_VALUE;
+            for (int k = 0; k < blocs.taille(b); k++) {
+                int v = blocs.sommet(b, k);
+                if (degreLibre[v] % 2 != 0) impairs++;
+                for (int i = debut[v]; i < debut[v + 1]; i++) {
+                    if (blocs.estIsthme(arete[i])) continue;
+                    if (cible[i] > v) restant += poids[arete[i]];
+                    poidsMin = Math.min(poidsMin, poids[arete[i]]);
+                }
+            }
+            for (int k = 0; k < blocs.taille(b) && restant > seuil() && !interrompue; k++) {
+                int s = blocs.sommet(b, k);
+                if (degreLibre[s] > 0) explorer(s, restant, impairs, poidsMin, null, 0);
+            }
+        }
+
+        // Les isthmes sont rendus
+        for (int t = 0; t < nbBlocs; t++) {
+            int b = ordre[t];
+            for (int k = 0; k < blocs.nbPonts(b); k++) {
+                int e = blocs.pontArete(b, k);
+                utilisees[e >>> 6] &= ~(1L << e);
+                degreLibre[blocs.pontSommet(b, k)]++;
+            }
+            etatBlocs[b] = null;
+        }
+    }
+
+    /**
+     * Explore le bloc b depuis chacun de ses portails, calcule le meilleur chemin qui monte de son
+     * sous-arbre jusqu'à l'isthme de son père, et propose au candidat les chemins dont b est le bloc le
+     * plus haut. Les fils de b doivent avoir été traités.
+     */
+    private void traiterBloc(int b, Candidat candidat) {
+        Bloc bloc = etatBlocs[b];
+        int nbPortails = 0;
+        int[] portails = new int[blocs.nbPonts(b)];
+        bloc.portailDuPont = new int[blocs.nbPonts(b)];
+        for (int k = 0; k < blocs.nbPonts(b); k++) {
+            int v = blocs.pontSommet(b, k); // les portails arrivent par ordre croissant
+            if (nbPortails == 0 || portails[nbPortails - 1] != v) {
+                numeroPortail[v] = nbPortails;
+                portails[nbPortails++] = v;
+            }
+            bloc.portailDuPont[k] = numeroPortail[v];
+        }
+        bloc.portails = Arrays.copyOf(portails, nbPortails);
+        bloc.valeur = new int[nbPortails][];
+        bloc.chemin = new int[nbPortails][][];
+        bloc.valeurLibre = new int[nbPortails];
+        bloc.cheminLibre = new int[nbPortails][];
+
+        // Exploration exhaustive du bloc depuis chaque portail
+        int restant = 0;
+        int impairs = 0;
+        int poidsMin = Integer.MAX_VALUE;
+        for (int k = 0; k < blocs.taille(b); k++) {
+            int v = blocs.sommet(b, k);
+            if (degreLibre[v] % 2 != 0) impairs++;
+            for (int i = debut[v]; i < debut[v + 1]; i++) {
+                if (blocs.estIsthme(arete[i])) continue;
+                if (cible[i] > v) restant += poids[arete[i]];
+                poidsMin = Math.min(poidsMin, poids[arete[i]]);
+            }
+        }
+        for (int a = 0; a < nbPortails; a++) {
+            bloc.valeur[a] = new int[nbPortails];
+            bloc.chemin[a] = new int[nbPortails][];
+            Arrays.fill(bloc.valeur[a], -1);
+            bloc.valeur[a][a] = 0;
+            bloc.chemin[a][a] = new int[]{portails[a]};
+            bloc.cheminLibre[a] = new int[]{portails[a]};
+            seuilPortail = -1;
+            explorer(portails[a], restant, impairs, poidsMin, bloc, a);
+        }
+        if (bloc.sommetParent >= 0) bloc.portailParent = numeroPortail[bloc.sommetParent];
+        for (int a = 0; a < nbPortails; a++) numeroPortail[portails[a]] = -1;
+
+        // Les deux meilleures montées des fils arrivant sur chaque portail (par des isthmes différents)
+        int[] premier = new int[nbPortails];
+        int[] premierPont = new int[nbPortails];
+        int[] second = new int[nbPortails];
+        int[] secondPont = new int[nbPortails];
+        Arrays.fill(premier, -1);
+        Arrays.fill(second, -1);
+        for (int k = 0; k < blocs.nbPonts(b); k++) {
+            if (blocs.pontArete(b, k) == bloc.areteParent) continue;
+            int a = bloc.portailDuPont[k];
+            int valeur = etatBlocs[fils(b, k)].montee + blocs.pontLongueur(b, k);
+            int bout = etatBlocs[fils(b, k)].bout;
+            if (premier[a] < 0 || prefere(valeur, bout, premier[a], etatBlocs[fils(b, premierPont[a])].bout)) {
+                second[a] = premier[a];
+                secondPont[a] = premierPont[a];
+                premier[a] = valeur;
+                premierPont[a] = k;
+            } else if (second[a] < 0 || prefere(valeur, bout, second[a], etatBlocs[fils(b, secondPont[a])].bout)) {
+                second[a] = valeur;
+                secondPont[a] = k;
+            }
+        }
+
+        // Chemins dont b est le bloc le plus haut
+        for (int a = 0; a < nbPortails; a++) {
+            int fin = finLibre(bloc, a);
+            candidat.proposer(bloc.valeurLibre[a], portails[a], fin, b, a, -1, -1);
+            if (premier[a] < 0) continue;
+            int bout = etatBlocs[fils(b, premierPont[a])].bout;
+            candidat.proposer(premier[a] + bloc.valeurLibre[a], bout, fin, b, a, premierPont[a], -1);
+            if (second[a] >= 0) {
+                int bout2 = etatBlocs[fils(b, secondPont[a])].bout;
+                candidat.proposer(premier[a] + bloc.valeur[a][a] + second[a], bout, bout2, b, a, premierPont[a], secondPont[a]);
+            }
+            for (int a2 = a + 1; a2 < nbPortails; a2++) {
+                if (premier[a2] < 0) continue;
+                int bout2 = etatBlocs[fils(b, premierPont[a2])].bout;
+                candidat.proposer(premier[a] + bloc.valeur[a][a2] + premier[a2], bout, bout2, b, a, premierPont[a], premierPont[a2]);
+            }
+        }
+
+        // Meilleur chemin qui finit sur le portail du père
+        if (bloc.portailParent >= 0) {
+            int q = bloc.portailParent;
+            bloc.montee = bloc.valeurLibre[q];
+            bloc.bout = finLibre(bloc, q);
+            bloc.choixMontee = -1;
+            for (int a = 0; a < nbPortails; a++) {
+                if (premier[a] < 0) continue;
+                int bout = etatBlocs[fils(b, premierPont[a])].bout;
+                if (prefere(premier[a] + bloc.valeur[a][q], bout, bloc.montee, bloc.bout)) {
+                    bloc.montee = premier[a] + bloc.valeur[a][q];
+                    bloc.bout = bout;
+                    bloc.choixMontee = premierPont[a];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return vrai si un chemin de valuation valeur dont l'extrémité libre est bout est préférable à un
+     * chemin de valuation valeurRef dont l'extrémité libre est boutRef
+     */
+    private static boolean prefere(int valeur, int bout, int valeurRef, int boutRef) {
+        return valeur > valeurRef || valeur == valeurRef && bout < boutRef;
+    }
+
+    /**
+     * @return la dernière extrémité du plus long chemin du bloc partant du portail a
+     */
+    private static int finLibre(Bloc bloc, int a) {
+        return bloc.cheminLibre[a][bloc.cheminLibre[a].length - 1];
+    }
+
+    /**
+     * Écrit dans sortie le chemin retenu par le candidat
+     *
+     * @return le nombre de sommets du chemin
+     */
+    private int construire(Candidat candidat, int[] sortie) {
+        int taille = assembler(candidat, sortie);
+        if (sortie[taille - 1] < sortie[0]) {
+            // le chemin part de sa plus petite extrémité
+            for (int i = 0, j = taille - 1; i < j; i++, j--) {
+                int x = sortie[i];
+                sortie[i] = sortie[j];
+                sortie[j] = x;
+            }
+        }
+        return taille;
+    }
+
+    /**
+     * Écrit dans sortie le chemin retenu par le candidat, dans le sens où il est assemblé
+     *
+     * @return le nombre de sommets du chemin
+     */
+    private int assembler(Candidat candidat, int[] sortie) {
+        Bloc bloc = etatBlocs[candidat.bloc];
+        int taille = 0;
+        if (candidat.pont1 >= 0) taille = monter(fils(candidat.bloc, candidat.pont1), sortie, 0);
+        if (candidat.pont2 < 0) {
+            int[] libre = bloc.cheminLibre[candidat.portail];
+            System.arraycopy(libre, 0, sortie, taille, libre.length);
+            return taille + libre.length;
+        }
+        int[] milieu = bloc.chemin[candidat.portail][bloc.portailDuPont[candidat.pont2]];
+        System.arraycopy(milieu, 0, sortie, taille, milieu.length);
+        taille += milieu.length;
+        int[] descente = new int[sortie.length];
+        int tailleDescente = monter(fils(candidat.bloc, candidat.pont2), descente, 0);
+        for (int i = tailleDescente - 1; i >= 0; i--) sortie[taille++] = descente[i];
+        return taille;
+    }
+
+    /**
+     * Écrit à partir de la case taille de sortie le meilleur chemin qui monte du sous-arbre du bloc b
+     * jusqu'au portail de son père
+     *
+     * @return le nombre de cases de sortie utilisées
+     */
+    private int monter(int b, int[] sortie, int taille) {
+        // Les blocs traversés, du plus haut au plus bas
+        int[] chaine = new int[etatBlocs.length];
+        int longueur = 0;
+        for (int x = b; ; x = fils(x, etatBlocs[x].choixMontee)) {
+            chaine[longueur++] = x;
+            if (etatBlocs[x].choixMontee < 0) break;
+        }
+        Bloc bas = etatBlocs[chaine[longueur - 1]];
+        int[] libre = bas.cheminLibre[bas.portailParent];
+        for (int i = libre.length - 1; i >= 0; i--) sortie[taille++] = libre[i];
+        for (int j = longueur - 2; j >= 0; j--) {
+            Bloc bloc = etatBlocs[chaine[j]];
+            int[] morceau = bloc.chemin[bloc.portailDuPont[bloc.choixMontee]][bloc.portailParent];
+            System.arraycopy(morceau, 0, sortie, taille, morceau.length);
+            taille += morceau.length;
+        }
+        return taille;
+    }
+
+    /**
+     * @return le bloc atteint par le k-ième isthme du bloc b
+     */
+    private int fils(int b, int k) {
+        return blocs.bloc(blocs.pontVoisin(b, k));
+    }
+
+    /**
+     * Explore tous les chemins partant du sommet s qui n'empruntent que des arêtes libres et peuvent encore
+     * améliorer un résultat : le meilleur chemin si bloc est null, sinon les meilleurs chemins depuis le
+     * portail numéro a de bloc.
+     *
+     * @param s        le sommet de départ
+     * @param restant  la valuation des arêtes libres accessibles depuis s
+     * @param impairs  le nombre de sommets de degré impair du graphe de ces arêtes
+     * @param poidsMin la longueur de la plus courte de ces arêtes
+     */
+    private void explorer(int s, int restant, int impairs, int poidsMin, Bloc bloc, int a) {
+        int valeur = 0;
+        int profondeur = 0;
+        pile[0] = s;
+        curseur[0] = debut[s];
+        while (profondeur >= 0) {
+            int x = pile[profondeur];
+            int perte = impairs > 2 ? (impairs - 2) / 2 * poidsMin : 0;
+            int seuil = bloc == null ? seuil() : seuilPortail;
+            if (limitee && (++pas & 1023) == 0) verifierBudget();
+            // une fois la recherche interrompue, on ne fait plus que revenir en arrière
+            if (!interrompue && curseur[profondeur] < debut[x + 1] && valeur + restant - perte > seuil) {
+                int i = curseur[profondeur]++;
+                int e = arete[i];
+                if ((utilisees[e >>> 6] & (1L << e)) != 0) continue;
+                // On emprunte l'arête e
+                utilisees[e >>> 6] |= 1L << e;
+                valeur += poids[e];
+                restant -= poids[e];
+                impairs += basculer(x) + basculer(cible[i]);
+                profondeur++;
+                pile[profondeur] = cible[i];
+                curseur[profondeur] = debut[cible[i]];
+                areteEmpruntee[profondeur] = e;
+                if (bloc != null) {
+                    retenir(bloc, a, valeur, profondeur + 1);
+                } else if (valeur > valeurMeilleur) {
+                    valeurMeilleur = valeur;
+                    tailleMeilleur = profondeur + 1;
+                    System.arraycopy(pile, 0, meilleur, 0, tailleMeilleur);
+                    partager();
+                }
+            } else {
+                // Retour en arrière : on libère l'arête qui a permis d'atteindre x
+                if (profondeur > 0) {
+                    int e = areteEmpruntee[profondeur];
+                    utilisees[e >>> 6] &= ~(1L << e);
+                    valeur -= poids[e];
+                    restant += poids[e];
+                    impairs += restituer(x) + restituer(pile[profondeur - 1]);
+                }
+                profondeur--;
+            }
+        }
+    }
+
+    /**
+     * Interrompt la recherche si le temps imparti est écoulé ou si le fil d'exécution a été interrompu
+     */
+    private void verifierBudget() {
+        if (System.nanoTime() - echeance >= 0 || Thread.currentThread().isInterrupted()) interrompue = true;
+    }
+
+    /**
+     * Compare le chemin courant (les taille premiers sommets de la pile, de valuation valeur), parti du
+     * portail a du bloc, aux meilleurs chemins connus depuis ce portail
+     */
+    private void retenir(Bloc bloc, int a, int valeur, int taille) {
+        int fin = numeroPortail[pile[taille - 1]];
+        boolean ameliore = false;
+        if (fin >= 0 && valeur > bloc.valeur[a][fin]) {
+            bloc.valeur[a][fin] = valeur;
+            bloc.chemin[a][fin] = Arrays.copyOf(pile, taille);
+            ameliore = true;
+        }
+        if (prefere(valeur, pile[taille - 1], bloc.valeurLibre[a], finLibre(bloc, a))) {
+            bloc.valeurLibre[a] = valeur;
+            bloc.cheminLibre[a] = Arrays.copyOf(pile, taille);
+            ameliore = true;
+        }
+        if (ameliore) {
+            // un chemin de même valuation que le meilleur chemin libre peut encore finir plus bas
+            seuilPortail = bloc.valeurLibre[a] - 1;
+            for (int v : bloc.valeur[a]) seuilPortail = Math.min(seuilPortail, v);
+        }
+    }
+
+    /**
+     * Retire une arête libre au sommet v
+     *
+     * @return la variation du nombre de sommets de degré impair
+     */
+    private int basculer(int v) {
+        return --degreLibre[v] % 2 != 0 ? 1 : -1;
+    }
+
+    /**
+     * Rend une arête libre au sommet v
+     *
+     * @return la variation du nombre de sommets de degré impair
+     */
+    private int restituer(int v) {
+        return ++degreLibre[v] % 2 != 0 ? 1 : -1;
+    }
+
+    /**
+     * Résultats de la recherche pour un bloc de l'arbre des blocs
+     */
+    private static class Bloc {
+        /**
+         * Isthme qui relie le bloc à son père (-1 pour la racine)
+         */
+        final int areteParent;
+        /**
+         * Extrémité de cet isthme dans le bloc (-1 pour la racine)
+         */
+        final int sommetParent;
+        /**
+         * Portails du bloc, par ordre croissant
+         */
+        int[] portails;
+        /**
+         * Rang du portail de chaque isthme du bloc
+         */
+        int[] portailDuPont;
+        /**
+         * Rang du portail de l'isthme du père (-1 pour la racine)
+         */
+        int portailParent = -1;
+        /**
+         * valeur[a][b] est la valuation du plus long chemin du bloc allant du portail a au portail b
+         */
+        int[][] valeur;
+        int[][][] chemin;
+        /**
+         * valeurLibre[a] est la valuation du plus long chemin du bloc partant du portail a
+         */
+        int[] valeurLibre;
+        int[][] cheminLibre;
+        /**
+         * Valuation du plus long chemin du sous-arbre du bloc qui finit sur le portail du père
+         */
+        int montee;
+        /**
+         * Première extrémité de ce chemin
+         */
+        int bout;
+        /**
+         * Isthme par lequel ce chemin arrive dans le bloc (-1 s'il commence dans le bloc)
+         */
+        int choixMontee = -1;
+
+        Bloc(int areteParent, int sommetParent) {
+            this.areteParent = areteParent;
+            this.sommetParent = sommetParent;
+        }
+    }
+
+    /**
+     * Meilleur chemin trouvé en combinant les blocs : il traverse le bloc depuis le portail, arrive par
+     * l'isthme pont1 (-1 s'il commence dans le bloc) et repart par l'isthme pont2 (-1 s'il finit dans
+     * le bloc). À valuation égale, on préfère le chemin dont la plus petite extrémité est la plus petite.
+     */
+    private static class Candidat {
+        int valeur = -1;
+        int petiteExtremite;
+        int grandeExtremite;
+        int bloc;
+        int portail;
+        int pont1;
+        int pont2;
+
+        void proposer(int valeur, int extremite1, int extremite2, int bloc, int portail, int pont1, int pont2) {
+            int petite = Math.min(extremite1, extremite2);
+            int grande = Math.max(extremite1, extremite2);
+            if (valeur < this.valeur) return;
+            if (valeur == this.valeur && (petite > petiteExtremite || petite == petiteExtremite && grande >= grandeExtremite)) return;
+            this.valeur = valeur;
+            this.petiteExtremite = petite;
+            this.grandeExtremite = grande;
+            this.bloc = bloc;
+            this.portail = portail;
+            this.pont1 = pont1;
+            this.pont2 = pont2;
+        }
+    }
+
+    /**
+     * Intervalle de tâches [debut, fin[ du calcul parallèle, coupé en deux tant qu'il en contient
+     * plusieurs pour que les fils d'exécution inoccupés puissent en voler la moitié
+     */
+    private static class Lot extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int debut;
+        private final int fin;
+        /**
+         * Exécution de la tâche d'un numéro donné
+         */
+        private final IntConsumer tache;
+
+        Lot(int debut, int fin, IntConsumer tache) {
+            this.debut = debut;
+            this.fin = fin;
+            this.tache = tache;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut == 1) {
+                tache.accept(debut);
+            } else if (fin - debut > 1) {
+                int milieu = (debut + fin) >>> 1;
+                invokeAll(new Lot(debut, milieu, tache), new Lot(milieu, fin, tache));
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+
+/**
+ * Résultat d'une recherche de plus long chemin en temps limité ou approchée : le meilleur chemin trouvé,
+ * sa valuation, un majorant de la valuation du plus long chemin et si le chemin est prouvé optimal.
+ */
+public class ResultatChemin {
+    /**
+     * Sommets du meilleur chemin trouvé, dans l'ordre
+     */
+    private final ArrayList<Integer> chemin;
+    /**
+     * Valuation du meilleur chemin trouvé
+     */
+    private final int valeur;
+    /**
+     * Majorant de la valuation d'un plus long chemin du graphe
+     */
+    private final int majorant;
+    /**
+     * Vrai si la recherche est allée à son terme
+     */
+    private final boolean optimal;
+
+    public ResultatChemin(ArrayList<Integer> chemin, int valeur, int majorant, boolean optimal) {
+        this.chemin = chemin;
+        this.valeur = valeur;
+        this.majorant = majorant;
+        this.optimal = optimal;
+    }
+
+    public ArrayList<Integer> getChemin() {
+        return chemin;
+    }
+
+    public int getValeur() {
+        return valeur;
+    }
+
+    /**
+     * @return un majorant de la valuation d'un plus long chemin du graphe (égal à getValeur() si le chemin
+     * est prouvé optimal)
+     */
+    public int getMajorant() {
+        return majorant;
+    }
+
+    /**
+     * @return vrai si le chemin est prouvé être un plus long chemin du graphe, faux si la recherche a été
+     * arrêtée avant son terme (un chemin plus long peut alors exister)
+     */
+    public boolean estOptimal() {
+        return optimal;
+    }
+}
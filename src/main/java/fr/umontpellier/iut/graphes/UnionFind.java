@@ -0,0 +1,96 @@
+package fr.umontpellier.iut.graphes;
+
+/**
+ * Partition des entiers 0, ..., n - 1 en ensembles disjoints (structure Union-Find).
+ * <p>
+ * Chaque ensemble est un arbre dont la racine est le représentant. La recherche du représentant
+ * raccourcit le chemin parcouru (compression de chemin) et l'union accroche l'arbre de plus petit
+ * rang sous l'autre (union par rang) : une suite de m opérations coûte O(m α(n)), où α est l'inverse
+ * de la fonction d'Ackermann (au plus 4 en pratique).
+ */
+public class UnionFind {
+    /**
+     * Parent de chaque élément dans son arbre (parent[x] == x pour une racine)
+     */
+    private final int[] parent;
+    /**
+     * Majorant de la hauteur de l'arbre de chaque racine
+     */
+    private final byte[] rang;
+    /**
+     * Nombre d'ensembles de la partition
+     */
+    private int nbEnsembles;
+
+    /**
+     * Construit la partition de 0, ..., n - 1 en n singletons
+     *
+     * @param n le nombre d'éléments
+     */
+    public UnionFind(int n) {
+        parent = new int[n];
+        rang = new byte[n];
+        for (int i = 0; i < n; i++) parent[i] = i;
+        nbEnsembles = n;
+    }
+
+    /**
+     * Construit une copie indépendante d'une partition
+     *
+     * @param autre la partition à copier
+     */
+    public UnionFind(UnionFind autre) {
+        parent = autre.parent.clone();
+        rang = autre.rang.clone();
+        nbEnsembles = autre.nbEnsembles;
+    }
+
+    /**
+     * @param x un élément
+     * @return le représentant de l'ensemble contenant x
+     */
+    public int trouver(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]]; // chaque élément visité remonte d'un cran
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Réunit les ensembles contenant x et y
+     *
+     * @param x un élément
+     * @param y un autre élément
+     * @return vrai si x et y étaient dans deux ensembles différents, faux sinon
+     */
+    public boolean unir(int x, int y) {
+        int rx = trouver(x);
+        int ry = trouver(y);
+        if (rx == ry) return false;
+        if (rang[rx] < rang[ry]) {
+            parent[rx] = ry;
+        } else {
+            parent[ry] = rx;
+            if (rang[rx] == rang[ry]) rang[rx]++;
+        }
+        nbEnsembles--;
+        return true;
+    }
+
+    /**
+     * @param x un élément
+     * @param y un autre élément
+     * @return vrai si x et y sont dans le même ensemble, faux sinon
+     */
+    public boolean memeEnsemble(int x, int y) {
+        return trouver(x) == trouver(y);
+    }
+
+    /**
+     * @return le nombre d'ensembles de la partition
+     */
+    public int nbEnsembles() {
+        return nbEnsembles;
+    }
+}
@@ -0,0 +1,212 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Vue qui réunit un ou plusieurs graphes de base (par exemple ceux de plusieurs joueurs) et une surcouche
+ * d'arêtes supplémentaires (par exemple les routes empruntées grâce aux gares), sans recopier les graphes
+ * de base. Tous les algorithmes de Graphe s'appliquent directement à la vue.
+ * <p>
+ * Les arêtes ajoutées à la vue vont dans la surcouche ; celles des graphes de base ne peuvent être ni
+ * supprimées ni changées de longueur. Si plusieurs graphes de base ont la même arête, c'est la longueur
+ * du premier qui compte. Les graphes de base ne doivent pas être modifiés tant que la vue est utilisée.
+ * <p>
+ * Les voisins d'un sommet qui n'a d'arêtes que dans une seule couche sont lus directement dans celle-ci.
+ * Sinon, les listes des couches sont fusionnées à la première lecture, et la fusion est conservée pour ce
+ * sommet jusqu'à la prochaine modification de ses arêtes. Une fusion n'est publiée qu'une fois complète
+ * (champs final) : les lectures de voisins peuvent donc se faire depuis plusieurs fils d'exécution.
+ */
+public class VueSurcouche extends Graphe {
+    /**
+     * Graphes de base, puis la surcouche (qui ne contient aucune arête des graphes de base)
+     */
+    private final Graphe[] couches;
+    /**
+     * Voisins fusionnés de chaque sommet (null si pas encore calculés ou si une arête du sommet a changé)
+     */
+    private final Fusion[] fusions;
+
+    /**
+     * Construit la réunion de graphes qui ont tous le même nombre de sommets, avec une surcouche vide
+     *
+     * @param bases les graphes de base (au moins un)
+     */
+    public VueSurcouche(Graphe... bases) {
+        super(bases[0].nbSommets(), false);
+        couches = Arrays.copyOf(bases, bases.length + 1);
+        for (Graphe b : bases) {
+            if (b.nbSommets() != nbSommets()) throw new IllegalArgumentException("Graphes de tailles différentes : " + b.nbSommets() + " et " + nbSommets());
+        }
+        couches[bases.length] = new Graphe(nbSommets());
+        fusions = new Fusion[nbSommets()];
+        recompter();
+    }
+
+    /**
+     * Construit la vue du graphe base augmenté d'arêtes supplémentaires
+     *
+     * @param base         un graphe
+     * @param aretesEnPlus des arêtes {u, v, longueur}
+     */
+    public VueSurcouche(Graphe base, int[][] aretesEnPlus) {
+        this(base);
+        for (int[] a : aretesEnPlus) ajouterArete(a[0], a[1], a[2]);
+    }
+
+    /**
+     * @return la couche dans laquelle se trouvent toutes les arêtes de v, null si elles sont réparties sur
+     * plusieurs couches (une couche quelconque si v n'a pas d'arête)
+     */
+    private Graphe seuleCouche(int v) {
+        Graphe seule = couches[0];
+        boolean trouvee = false;
+        for (Graphe c : couches) {
+            if (c.degre(v) > 0) {
+                if (trouvee) return null;
+                seule = c;
+                trouvee = true;
+            }
+        }
+        return seule;
+    }
+
+    /**
+     * @return les voisins de v fusionnés sur toutes les couches (calculés au premier appel)
+     */
+    private Fusion fusion(int v) {
+        Fusion f = fusions[v];
+        if (f != null) return f;
+        int total = 0;
+        for (Graphe c : couches) total += c.degre(v);
+        // voisin dans les 32 bits de poids fort, rang de la couche puis du voisin dans les bits de poids faible
+        long[] cles = new long[total];
+        int[] longueurs = new int[total];
+        int p = 0;
+        for (Graphe c : couches) {
+            for (int k = 0; k < c.degre(v); k++, p++) {
+                cles[p] = (long) c.voisin(v, k) << 32 | p;
+                longueurs[p] = c.poidsVoisin(v, k);
+            }
+        }
+        Arrays.sort(cles);
+        int[] voisins = new int[total];
+        int[] poids = new int[total];
+        int d = 0;
+        for (long cle : cles) {
+            int w = (int) (cle >>> 32);
+            if (d > 0 && voisins[d - 1] == w) continue; // la première couche l'emporte
+            voisins[d] = w;
+            poids[d++] = longueurs[(int) cle];
+        }
+        f = new Fusion(Arrays.copyOf(voisins, d), Arrays.copyOf(poids, d));
+        fusions[v] = f;
+        return f;
+    }
+
+    /**
+     * @return la première couche de base qui contient l'arête (i, j), null si aucune
+     */
+    private Graphe baseAvec(int i, int j) {
+        for (int c = 0; c < couches.length - 1; c++) {
+            if (couches[c].existeArete(i, j)) return couches[c];
+        }
+        return null;
+    }
+
+    @Override
+    protected boolean inscrireArete(int i, int j, int k) {
+        Graphe base = baseAvec(i, j);
+        if (base != null) {
+            if (base.poidsArete(i, j) != k) throw new UnsupportedOperationException("Arête d'un graphe de base : " + i + " - " + j);
+            return false;
+        }
+        Graphe surcouche = couches[couches.length - 1];
+        boolean nouvelle = !surcouche.existeArete(i, j);
+        surcouche.ajouterArete(i, j, k);
+        fusions[i] = null;
+        fusions[j] = null;
+        return nouvelle;
+    }
+
+    @Override
+    protected boolean effacerArete(int i, int j) {
+        if (baseAvec(i, j) != null) throw new UnsupportedOperationException("Arête d'un graphe de base : " + i + " - " + j);
+        Graphe surcouche = couches[couches.length - 1];
+        if (!surcouche.existeArete(i, j)) return false;
+        surcouche.supprimerArete(i, j);
+        fusions[i] = null;
+        fusions[j] = null;
+        return true;
+    }
+
+    @Override
+    public boolean existeArete(int i, int j) {
+        for (Graphe c : couches) {
+            if (c.existeArete(i, j)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int poidsArete(int i, int j) {
+        for (Graphe c : couches) {
+            int k = c.poidsArete(i, j);
+            if (k > 0) return k;
+        }
+        return 0;
+    }
+
+    @Override
+    public int degre(int v) {
+        Graphe seule = seuleCouche(v);
+        if (seule != null) return seule.degre(v);
+        return fusion(v).voisins.length;
+    }
+
+    @Override
+    public int voisin(int v, int k) {
+        Graphe seule = seuleCouche(v);
+        if (seule != null) return seule.voisin(v, k);
+        return fusion(v).voisins[k];
+    }
+
+    @Override
+    public int poidsVoisin(int v, int k) {
+        Graphe seule = seuleCouche(v);
+        if (seule != null) return seule.poidsVoisin(v, k);
+        return fusion(v).longueurs[k];
+    }
+
+    @Override
+    public void forEachVoisin(int v, IntConsumer action) {
+        Graphe seule = seuleCouche(v);
+        if (seule != null) {
+            seule.forEachVoisin(v, action);
+        } else {
+            for (int w : fusion(v).voisins) action.accept(w);
+        }
+    }
+
+    @Override
+    public ArrayList<Integer> voisins(int v) {
+        ArrayList<Integer> voisins = new ArrayList<>(degre(v));
+        forEachVoisin(v, voisins::add);
+        return voisins;
+    }
+
+    /**
+     * Voisins d'un sommet fusionnés sur toutes les couches, par ordre croissant, et longueurs des arêtes
+     * correspondantes
+     */
+    private static class Fusion {
+        private final int[] voisins;
+        private final int[] longueurs;
+
+        private Fusion(int[] voisins, int[] longueurs) {
+            this.voisins = voisins;
+            this.longueurs = longueurs;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Index d'un plateau construit une seule fois au début de la partie : les villes et les routes reçoivent
+ * des numéros consécutifs (dans l'ordre des listes du plateau, le numéro d'une ville est donc aussi son
+ * sommet dans les graphes du jeu), et les recherches par nom ou par paire de villes se font en temps
+ * constant au lieu de parcourir les listes.
+ */
+public class IndexPlateau {
+    /**
+     * Villes, par numéro
+     */
+    private final List<Ville> villes;
+    /**
+     * Routes, par numéro
+     */
+    private final List<Route> routes;
+    /**
+     * Numéro de chaque ville
+     */
+    private final IdentityHashMap<Ville, Integer> numerosVilles = new IdentityHashMap<>();
+    /**
+     * Numéro de chaque route
+     */
+    private final IdentityHashMap<Route, Integer> numerosRoutes = new IdentityHashMap<>();
+    /**
+     * Ville de chaque nom
+     */
+    private final HashMap<String, Ville> villesParNom = new HashMap<>();
+    /**
+     * Route de chaque nom
+     */
+    private final HashMap<String, Route> routesParNom = new HashMap<>();
+    /**
+     * Routes entre deux villes (doubles routes comprises, dans l'ordre du plateau), par paire de numéros
+     */
+    private final HashMap<Long, List<Route>> routesEntre = new HashMap<>();
+
+    public IndexPlateau(Plateau plateau) {
+        villes = plateau.getVilles();
+        routes = plateau.getRoutes();
+        for (int i = 0; i < villes.size(); i++) {
+            numerosVilles.put(villes.get(i), i);
+            villesParNom.putIfAbsent(villes.get(i).getNom(), villes.get(i));
+        }
+        for (int i = 0; i < routes.size(); i++) {
+            Route r = routes.get(i);
+            numerosRoutes.put(r, i);
+            routesParNom.putIfAbsent(r.getNom(), r);
+            routesEntre.computeIfAbsent(cle(numero(r.getVille1()), numero(r.getVille2())), k -> new ArrayList<>(1)).add(r);
+        }
+    }
+
+    /**
+     * @return la clé de la paire de villes {u, v}, indépendante de l'ordre
+     */
+    private static long cle(int u, int v) {
+        return (long) Math.min(u, v) << 32 | Math.max(u, v);
+    }
+
+    public int nbVilles() {
+        return villes.size();
+    }
+
+    public int nbRoutes() {
+        return routes.size();
+    }
+
+    /**
+     * @param v une ville du plateau
+     * @return le numéro de v (-1 si elle n'est pas sur le plateau)
+     */
+    public int numero(Ville v) {
+        Integer i = numerosVilles.get(v);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * @param r une route du plateau
+     * @return le numéro de r (-1 si elle n'est pas sur le plateau)
+     */
+    public int numero(Route r) {
+        Integer i = numerosRoutes.get(r);
+        return i == null ? -1 : i;
+    }
+
+    public Ville getVille(int numero) {
+        return villes.get(numero);
+    }
+
+    public Route getRoute(int numero) {
+        return routes.get(numero);
+    }
+
+    /**
+     * @return la ville qui porte ce nom, null s'il n'y en a pas
+     */
+    public Ville getVilleByNom(String nom) {
+        return villesParNom.get(nom);
+    }
+
+    /**
+     * @return la route qui porte ce nom, null s'il n'y en a pas
+     */
+    public Route getRouteByNom(String nom) {
+        return routesParNom.get(nom);
+    }
+
+    /**
+     * @return les routes qui relient v1 et v2 (liste vide s'il n'y en a pas)
+     */
+    public List<Route> getRoutesEntre(Ville v1, Ville v2) {
+        List<Route> res = routesEntre.get(cle(numero(v1), numero(v2)));
+        return res == null ? Collections.emptyList() : Collections.unmodifiableList(res);
+    }
+
+    /**
+     * @return la première route (dans l'ordre du plateau) qui relie v1 et v2, null s'il n'y en a pas
+     */
+    public Route getRouteByVilles(Ville v1, Ville v2) {
+        List<Route> res = routesEntre.get(cle(numero(v1), numero(v2)));
+        return res == null ? null : res.get(0);
+    }
+}
@@ -2,6 +2,8 @@ package fr.umontpellier.iut.rails;
 
 import com.google.gson.Gson;
 import fr.umontpellier.iut.graphes.Graphe;
+import fr.umontpellier.iut.graphes.GrapheBinaire;
+import fr.umontpellier.iut.graphes.VueSurcouche;
 import fr.umontpellier.iut.gui.GameServer;
 
 import java.util.*;
@@ -26,6 +28,19 @@ public class Jeu implements Runnable {
      * Liste des routes du plateau de jeu
      */
     private List<Route> routes;
+    /**
+     * Numéros des villes et des routes, et recherches par nom ou par paire de villes
+     */
+    private IndexPlateau index;
+    /**
+     * Graphe de toutes les routes du plateau (le sommet d'une ville est son numéro dans l'index)
+     */
+    private GrapheBinaire grapheDuPlateau;
+    /**
+     * Réseau (routes, gares et plus long chemin) de chaque joueur, tenu à jour à chaque changement de
+     * propriétaire d'une route ou d'une ville
+     */
+    private Map<Joueur, Reseau> reseaux;
     /**
      * Pile de pioche (face cachée)
      */
@@ -62,6 +77,9 @@ public class Jeu implements Runnable {
         Plateau plateau = Plateau.makePlateauEurope();
         villes = plateau.getVilles();
         routes = plateau.getRoutes();
+        index = new IndexPlateau(plateau);
+        grapheDuPlateau = new GrapheBinaire(villes.size());
+        for (Route r : routes) grapheDuPlateau.ajouterArete(index.numero(r.getVille1()), index.numero(r.getVille2()), r.getLongueur());
 
         // création des piles de pioche, cartes face visible et défausse
         pileCartesWagon = new ArrayList<>();
@@ -92,6 +110,8 @@ public class Jeu implements Runnable {
             }
             joueurs.add(j);
         }
+        reseaux = new HashMap<>();
+        for (Joueur j : joueurs) reseaux.put(j, new Reseau(villes.size()));
         this.joueurCourant = joueurs.get(0);
     }
 
@@ -111,6 +131,113 @@ public class Jeu implements Runnable {
         return routes;
     }
 
+    public IndexPlateau getIndex() {
+        return index;
+    }
+
+    /**
+     * @param j un joueur de la partie
+     * @return une copie du réseau des routes capturées par j jusqu'ici
+     */
+    public Graphe getReseau(Joueur j) {
+        return new GrapheBinaire(reseaux.get(j).graphe);
+    }
+
+    /**
+     * Indique si une destination du joueur est déjà réalisée par ses propres routes. Les gares ne sont pas
+     * prises en compte, puisque les routes qu'elles empruntent ne sont choisies qu'en fin de partie. Les
+     * classes de connexité du réseau étant complétées à chaque capture, la réponse ne coûte qu'une recherche
+     * dans la partition.
+     *
+     * @param j un joueur de la partie
+     * @param d une destination
+     * @return vrai si les deux villes de d sont reliées par le réseau de j
+     */
+    public boolean destinationRealisee(Joueur j, Destination d) {
+        int ville1 = index.numero(index.getVilleByNom(d.getVille1()));
+        int ville2 = index.numero(index.getVilleByNom(d.getVille2()));
+        return ville1 >= 0 && ville2 >= 0 && reseaux.get(j).graphe.memeClasse(ville1, ville2);
+    }
+
+    /**
+     * Ajoute la route au réseau du joueur qui vient d'en devenir propriétaire (appelé par
+     * Route.setProprietaire)
+     *
+     * @param j le joueur
+     * @param r la route dont j est devenu propriétaire
+     */
+    void routeCapturee(Joueur j, Route r) {
+        Reseau reseau = reseaux.get(j);
+        int ville1 = index.numero(r.getVille1());
+        int ville2 = index.numero(r.getVille2());
+        if (reseau == null || ville1 < 0 || ville2 < 0) return; // joueur ou route d'une autre partie
+        reseau.graphe.ajouterArete(ville1, ville2, r.getLongueur());
+        // Seule la classe de connexité de la nouvelle route a changé, et son plus long chemin contient ceux des
+        // classes qu'elle a réunies : le maximum des autres classes est donc déjà connu
+        reseau.plusLongChemin = Math.max(reseau.plusLongChemin, reseau.graphe.valuationChemin(reseau.graphe.plusLongCheminDeLaClasse(ville1)));
+    }
+
+    /**
+     * Retire la route du réseau du joueur qui n'en est plus propriétaire (appelé par Route.setProprietaire)
+     *
+     * @param j le joueur
+     * @param r la route que j ne possède plus
+     */
+    void routeLiberee(Joueur j, Route r) {
+        Reseau reseau = reseaux.get(j);
+        if (reseau == null || index.numero(r) < 0) return;
+        // l'arête reste si j possède l'autre route d'une double route
+        for (Route autre : index.getRoutesEntre(r.getVille1(), r.getVille2())) {
+            if (autre != r && autre.getProprietaire() == j) return;
+        }
+        reseau.graphe.supprimerArete(index.numero(r.getVille1()), index.numero(r.getVille2()));
+        reseau.plusLongChemin = reseau.graphe.valuationChemin(reseau.graphe.plusLongChemin());
+    }
+
+    /**
+     * @param j un joueur de la partie
+     * @return la valuation du plus long chemin du réseau de j jusqu'ici
+     */
+    public int getPlusLongChemin(Joueur j) {
+        return reseaux.get(j).plusLongChemin;
+    }
+
+    /**
+     * @return le classement provisoire du bonus European Express : le nom et la valuation du plus long
+     * chemin de chaque joueur, du plus long au plus court (dans l'ordre des joueurs en cas d'égalité)
+     */
+    public List<Map<String, Object>> getClassementEuropeanExpress() {
+        List<Map<String, Object>> classement = new ArrayList<>();
+        for (Joueur j : joueurs) {
+            classement.add(Map.of("nom", j.getNom(), "plusLongChemin", reseaux.get(j).plusLongChemin));
+        }
+        classement.sort(Comparator.comparingInt(c -> -(int) c.get("plusLongChemin")));
+        return classement;
+    }
+
+    /**
+     * Enregistre la gare du joueur qui vient de devenir propriétaire de la ville (appelé par
+     * Ville.setProprietaire)
+     *
+     * @param j le joueur
+     * @param v la ville où j a une gare
+     */
+    void gareConstruite(Joueur j, Ville v) {
+        Reseau reseau = reseaux.get(j);
+        if (reseau != null && index.numero(v) >= 0) reseau.gares.add(index.numero(v));
+    }
+
+    /**
+     * Oublie la gare du joueur qui n'est plus propriétaire de la ville (appelé par Ville.setProprietaire)
+     *
+     * @param j le joueur
+     * @param v la ville où j n'a plus de gare
+     */
+    void gareDetruite(Joueur j, Ville v) {
+        Reseau reseau = reseaux.get(j);
+        if (reseau != null) reseau.gares.remove((Integer) index.numero(v));
+    }
+
     public List<CouleurWagon> getPileCartesWagon() {
         return pileCartesWagon;
     }
@@ -190,70 +317,63 @@ public class Jeu implements Runnable {
      */
     public List<Integer> calculerLesScores() {
         List<Integer> scores =  new ArrayList<>();
-        List<Graphe> graphes = new ArrayList<>(); //Liste des graphes de chaque joueur
-        Graphe plateau = new Graphe(villes.size()); //Graphe représentant l'entièreté du plateau.
-
-        // Calcul graphe chaque joueur
-        for (int i = 0; i < joueurs.size(); i++) {
-            Joueur j = joueurs.get(i);
-            Graphe g = new Graphe(villes.size());
-            for (Route r : routes) { //Pour chaque route du jeu, si le propriétaire est le joueur j alors on ajoute une arête à son graphe entre les 2 villes de la route.
-                if (r.getProprietaire().equals(j)) g.ajouterArete(villes.indexOf(r.getVille1()), villes.indexOf(r.getVille2()), r.getLongueur());
-            }
-            graphes.add(g);
-        }
-        // Calcul graphe du plateau - Ajout d'une arête pour chaque route du jeu.
-        for (Route r : routes) plateau.ajouterArete(villes.indexOf(r.getVille1()), villes.indexOf(r.getVille1()), r.getLongueur());
+        // Les graphes des joueurs et du plateau sont tenus à jour pendant la partie
+        GrapheBinaire plateau = grapheDuPlateau;
 
         // Calcul du score pour les destinations
         for (int i = 0; i < joueurs.size(); i++) {
             Joueur j =  joueurs.get(i);
-            Graphe g = graphes.get(i);
+            Graphe g = reseaux.get(j).graphe;
 
             // Choix des routes reliées aux gares
             HashMap<Ville, Route> routesSupp = new HashMap<>();
-            for (Ville v : villes) {
-                if (v.getProprietaire().equals(j)) {
-                    ArrayList<Integer> voisines = plateau.voisins(villes.indexOf(v)); //Récupération de toutes les routes pouvant être reliées via la gare
-                    List<Route> routesPossibles = new ArrayList<>();
-                    for (int voisin : voisines) {
-                        for (int k = 0; k < joueurs.size(); k++) {
-                            if (i != k) {
-                                if (graphes.get(k).existeArete(villes.indexOf(v), voisin)) {
-                                    //Si la route est capturée par un des joueurs alors on l'ajoute dans nos routes possibles à choisir.
-                                    Route r = getRouteByVilles(v, villes.get(voisin));
-                                    if (r != null) routesPossibles.add(r);
-                                }
+            for (int numeroGare : reseaux.get(j).gares) {
+                Ville v = index.getVille(numeroGare);
+                ArrayList<Integer> voisines = plateau.voisins(numeroGare); //Récupération de toutes les routes pouvant être reliées via la gare
+                List<Route> routesPossibles = new ArrayList<>();
+                for (int voisin : voisines) {
+                    for (Joueur autre : joueurs) {
+                        if (autre != j) {
+                            if (reseaux.get(autre).graphe.existeArete(numeroGare, voisin)) {
+                                //Si la route est capturée par un des joueurs alors on l'ajoute dans nos routes possibles à choisir.
+                                Route r = index.getRouteByVilles(v, index.getVille(voisin));
+                                if (r != null) routesPossibles.add(r);
                             }
                         }
                     }
-                    //Fait choisir au joueur la route qu'il veut utiliser pour chaque gare.
-                    ArrayList<String> choix = new ArrayList<>();
-                    for (Route r : routesPossibles) choix.add(r.getNom());
-                    String reponse = j.choisir(String.format("Veuillez sélectionner une route reliée à votre gare de %s.", v.getNom()), choix, new ArrayList<>(), false);
-                    Route r = getRouteByNom(reponse);
-                    if (r != null) routesSupp.put(v, r);
                 }
+                //Fait choisir au joueur la route qu'il veut utiliser pour chaque gare.
+                ArrayList<String> choix = new ArrayList<>();
+                for (Route r : routesPossibles) choix.add(r.getNom());
+                String reponse = j.choisir(String.format("Veuillez sélectionner une route reliée à votre gare de %s.", v.getNom()), choix, new ArrayList<>(), false);
+                Route r = index.getRouteByNom(reponse);
+                if (r != null) routesSupp.put(v, r);
             }
 
             // Calcul Bonus/Malus Destinations
-            for (Destination d : j.getDestinations()) {
-                //Pour chacune des destinations du joueur, on vérifie s'il l'a réalisée
-                HashMap<String, Object> dest = (HashMap<String, Object>) d.asPOJO();
-                Ville ville1 = getVilleByNom((String) dest.get("ville1"));
-                Ville ville2 = getVilleByNom((String) dest.get("ville2"));
-                Graphe gares = Graphe.copie(g); //Copie du graphe du joueur ou on ajoute les routes sélectionnées pour les gares.
-                for (Ville v : routesSupp.keySet()) {
-                    Ville v1 = routesSupp.get(v).getVille1().getNom().equals(v.getNom()) ? routesSupp.get(v).getVille2() : routesSupp.get(v).getVille1();
-                    gares.ajouterArete(villes.indexOf(v), villes.indexOf(v1), routesSupp.get(v).getLongueur());
-                }
-                int valeur = (int) dest.get("valeur");
-                if (g.calculerClasseDeConnexite(villes.indexOf(ville1)).contains(villes.indexOf(ville2))) {
-                    j.setScore(j.getScore() + valeur); //Si les 2 villes de la destination (sommets) sont dans la même classe de connexité alors la destination a été réalisée
-                } else if (gares.calculerClasseDeConnexite(villes.indexOf(ville1)).contains(villes.indexOf(ville2))) {
-                    j.setScore(j.getScore() + valeur); //Même vérification mais avec le graphe où les routes des gares sont ajoutées
+            // Les routes des gares sont ajoutées à une vue du réseau du joueur, qui n'est ni copié ni modifié
+            VueSurcouche reseauAvecGares = new VueSurcouche(g);
+            for (Ville v : routesSupp.keySet()) {
+                Route r = routesSupp.get(v);
+                int u1 = index.numero(r.getVille1());
+                int u2 = index.numero(r.getVille2());
+                if (!g.existeArete(u1, u2)) reseauAvecGares.ajouterArete(u1, u2, r.getLongueur());
+            }
+            List<Destination> destinations = j.getDestinations();
+            int[][] paires = new int[destinations.size()][];
+            int[] valeurs = new int[destinations.size()];
+            for (int k = 0; k < destinations.size(); k++) {
+                Destination d = destinations.get(k);
+                paires[k] = new int[]{index.numero(index.getVilleByNom(d.getVille1())), index.numero(index.getVilleByNom(d.getVille2()))};
+                valeurs[k] = d.getValeur();
+            }
+            //Toutes les destinations du joueur sont vérifiées à partir d'un seul calcul des classes de connexité
+            boolean[] realisees = reseauAvecGares.sontRelies(paires);
+            for (int k = 0; k < paires.length; k++) {
+                if (realisees[k]) {
+                    j.setScore(j.getScore() + valeurs[k]); //Si les 2 villes de la destination (sommets) sont dans la même classe de connexité alors la destination a été réalisée (avec ou sans les gares)
                 } else {
-                    j.setScore(j.getScore() - valeur); //Sinon on déduit les points de la destination : elle n'a pas été réalisée
+                    j.setScore(j.getScore() - valeurs[k]); //Sinon on déduit les points de la destination : elle n'a pas été réalisée
                 }
             }
         }
@@ -261,10 +381,9 @@ public class Jeu implements Runnable {
         // Calcul Bonus European Express
         ArrayList<Integer> taillesChemins = new ArrayList<>();
         int max = 0;
-        for (int i = 0; i < graphes.size(); i++) {
-            //Pour chaque joueur calcul de son plus long chemin et enregistrement de sa valuation.
-            Graphe g = graphes.get(i);
-            int taillePlusLongChemin = g.valuationChemin(g.plusLongChemin());
+        for (Joueur j : joueurs) {
+            //Le plus long chemin de chaque joueur est tenu à jour à chaque route capturée
+            int taillePlusLongChemin = reseaux.get(j).plusLongChemin;
             taillesChemins.add(taillePlusLongChemin);
             max = Math.max(taillePlusLongChemin, max);
         }
@@ -282,28 +401,6 @@ public class Jeu implements Runnable {
         return scores;
     }
 
-    private Route getRouteByNom(String nom) {
-        for (Route r : routes) {
-            if (r.getNom().equals(nom)) return r;
-        }
-        return null;
-    }
-
-    private Ville getVilleByNom(String nom) {
-        for (Ville v : villes) {
-            if (v.getNom().equals(nom)) return v;
-        }
-        return null;
-    }
-
-    private Route getRouteByVilles(Ville v1, Ville v2) {
-        for (Route r : routes) {
-            if ((r.getVille1().getNom().equals(v1.getNom()) && r.getVille2().getNom().equals(v2.getNom()))
-                    || r.getVille1().getNom().equals(v2.getNom()) && r.getVille2().getNom().equals(v1.getNom())) return r;
-        }
-        return null;
-    }
-
     /**
      * Ajoute une carte wagon dans la pile de défausse
      *
@@ -475,6 +572,7 @@ public class Jeu implements Runnable {
                 new AbstractMap.SimpleEntry<>("routes", routes.stream().map(Route::asPOJO).collect(Collectors.toList())),
                 new AbstractMap.SimpleEntry<String, Object>("joueurs",
                         joueurs.stream().map(Joueur::asPOJO).collect(Collectors.toList())),
+                new AbstractMap.SimpleEntry<String, Object>("europeanExpress", getClassementEuropeanExpress()),
                 new AbstractMap.SimpleEntry<String, Object>("piles", Map.ofEntries(
                         new AbstractMap.SimpleEntry<String, Object>("pileCartesWagon", pileCartesWagon.size()),
                         new AbstractMap.SimpleEntry<String, Object>("pileDestinations", pileDestinations.size()),
@@ -492,4 +590,26 @@ public class Jeu implements Runnable {
         }
         return joiner.toString();
     }
+
+    /**
+     * État du réseau d'un joueur au cours de la partie
+     */
+    private static class Reseau {
+        /**
+         * Routes capturées par le joueur (une arête par paire de villes reliées)
+         */
+        private final GrapheBinaire graphe;
+        /**
+         * Numéros des villes où le joueur a une gare
+         */
+        private final List<Integer> gares = new ArrayList<>();
+        /**
+         * Valuation du plus long chemin de graphe
+         */
+        private int plusLongChemin;
+
+        private Reseau(int nbVilles) {
+            graphe = new GrapheBinaire(nbVilles);
+        }
+    }
 }
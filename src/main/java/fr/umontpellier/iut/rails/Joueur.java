@@ -269,7 +269,12 @@ public class Joueur {
         data.put("nbGares", nbGares);
         data.put("nbWagons", nbWagons);
         data.put("estJoueurCourant", this == jeu.getJoueurCourant());
-        data.put("destinations", destinations.stream().map(Destination::asPOJO).collect(Collectors.toList()));
+        data.put("destinations", destinations.stream().map(d -> {
+            @SuppressWarnings("unchecked")
+            HashMap<String, Object> dest = (HashMap<String, Object>) d.asPOJO();
+            dest.put("realisee", jeu.destinationRealisee(this, d));
+            return dest;
+        }).collect(Collectors.toList()));
         data.put("cartesWagon", cartesWagon.stream().sorted().map(CouleurWagon::name).collect(Collectors.toList()));
         data.put("cartesWagonPosees",
                 cartesWagonPosees.stream().sorted().map(CouleurWagon::name).collect(Collectors.toList()));
@@ -365,37 +370,40 @@ public class Joueur {
             couleurs.add(CouleurWagon.GRIS.name());
         }
 
-        // capturer une route
-        HashMap<String, Route> routes = new HashMap<>();
+        // capturer une route (les routes possibles sont repérées par leur numéro dans l'index du plateau)
+        IndexPlateau index = jeu.getIndex();
+        boolean[] routesPossibles = new boolean[index.nbRoutes()];
         for (Route route : jeu.getRoutes()) {
             if (route.getProprietaire() == null && route.getLongueur() <= nbWagons
                     && route.peutCapturerParJoueur(this)) {
                 optionsPossibles.add(route.getNom());
-                routes.put(route.getNom(), route);
+                routesPossibles[index.numero(route)] = true;
             }
         }
 
         // construire une ville
-        HashMap<String, Ville> villes = new HashMap<>();
+        boolean[] villesPossibles = new boolean[index.nbVilles()];
         if (nbGares > 0 && peutPayerCartesWagon(4 - nbGares, CouleurWagon.GRIS, 0)) {
             for (Ville ville : jeu.getVilles()) {
                 if (ville.getProprietaire() == null) {
                     optionsPossibles.add(ville.getNom());
-                    villes.put(ville.getNom(), ville);
+                    villesPossibles[index.numero(ville)] = true;
                 }
             }
         }
 
         String choix = choisir("Début du tour.", optionsPossibles, new ArrayList<>(), true);
+        Route route = index.getRouteByNom(choix);
+        Ville ville = index.getVilleByNom(choix);
 
         if (choix.equals("destinations")) {
             prendreDestinations();
         } else if (couleurs.contains(choix)) {
             prendreCartesWagons(CouleurWagon.valueOf(choix));
-        } else if (routes.containsKey(choix)) {
-            capturerRoute(routes.get(choix));
-        } else if (villes.containsKey(choix)) {
-            construireGare(villes.get(choix));
+        } else if (route != null && routesPossibles[index.numero(route)]) {
+            capturerRoute(route);
+        } else if (ville != null && villesPossibles[index.numero(ville)]) {
+            construireGare(ville);
         }
     }
 
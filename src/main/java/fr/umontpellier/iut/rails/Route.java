@@ -59,8 +59,18 @@ public class Route {
         return proprietaire;
     }
 
+    /**
+     * Change le propriétaire de la route. C'est le seul point d'entrée d'un changement de propriétaire : le
+     * réseau de l'ancien et du nouveau propriétaire est mis à jour dans leur partie.
+     *
+     * @param proprietaire le nouveau propriétaire (ou null)
+     */
     public void setProprietaire(Joueur proprietaire) {
+        Joueur ancien = this.proprietaire;
         this.proprietaire = proprietaire;
+        if (ancien == proprietaire) return;
+        if (ancien != null && ancien.getJeu() != null) ancien.getJeu().routeLiberee(ancien, this);
+        if (proprietaire != null && proprietaire.getJeu() != null) proprietaire.getJeu().routeCapturee(proprietaire, this);
     }
 
     public String getNom() {
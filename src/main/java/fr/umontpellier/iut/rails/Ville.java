@@ -24,8 +24,18 @@ public class Ville {
         return proprietaire;
     }
     
+    /**
+     * Change le propriétaire de la gare de la ville. C'est le seul point d'entrée d'un changement de
+     * propriétaire : les gares de l'ancien et du nouveau propriétaire sont mises à jour dans leur partie.
+     *
+     * @param proprietaire le nouveau propriétaire (ou null)
+     */
     public void setProprietaire(Joueur proprietaire) {
+        Joueur ancien = this.proprietaire;
         this.proprietaire = proprietaire;
+        if (ancien == proprietaire) return;
+        if (ancien != null && ancien.getJeu() != null) ancien.getJeu().gareDetruite(ancien, this);
+        if (proprietaire != null && proprietaire.getJeu() != null) proprietaire.getJeu().gareConstruite(proprietaire, this);
     }
     
     @Override
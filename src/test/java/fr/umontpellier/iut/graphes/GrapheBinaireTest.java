@@ -0,0 +1,77 @@
+package fr.umontpellier.iut.graphes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrapheBinaireTest extends GrapheTest {
+
+    @Override
+    protected Graphe nouveauGraphe(int n) {
+        return new GrapheBinaire(n);
+    }
+
+    @Test
+    void testMemesResultatsQueLesListesAdjacence() {
+        // 64 sommets tiennent dans des long, 65 et 150 utilisent des BitSet
+        Random r = new Random(7);
+        for (int n : new int[]{64, 65, 150}) {
+            Graphe listes = new Graphe(n);
+            Graphe bits = new GrapheBinaire(n);
+            listes.ajouterArete(0, n - 1, 2);
+            bits.ajouterArete(0, n - 1, 2);
+            for (int k = 0; k < n; k++) {
+                int u = r.nextInt(n);
+                int v = r.nextInt(n);
+                if (u == v) continue;
+                int longueur = 1 + r.nextInt(6);
+                listes.ajouterArete(u, v, longueur);
+                bits.ajouterArete(u, v, longueur);
+            }
+            listes.supprimerArete(listes.voisin(0, 0), 0);
+            bits.supprimerArete(bits.voisin(0, 0), 0);
+
+            assertEquals(listes.toString(), bits.toString());
+            assertEquals(listes.nbAretes(), bits.nbAretes());
+            assertEquals(listes.nbCC(), bits.nbCC());
+            assertEquals(listes.calculerClassesDeConnexite(), bits.calculerClassesDeConnexite());
+            for (int v = 0; v < n; v++) {
+                assertEquals(listes.voisins(v), bits.voisins(v));
+                assertEquals(listes.indexConnexite().classe(v), bits.indexConnexite().classe(v));
+            }
+        }
+    }
+
+    @Test
+    void testLongueursAuDelaDUnOctet() {
+        Graphe g = new GrapheBinaire(4);
+        g.ajouterArete(0, 1, 255);
+        g.ajouterArete(1, 2, 8);
+        assertEquals(255, g.poidsArete(1, 0));
+        g.ajouterArete(2, 3, 1000);
+        assertEquals(1000, g.poidsArete(3, 2));
+        assertEquals(255, g.poidsArete(0, 1));
+        assertEquals(8, g.poidsVoisin(2, 0));
+        assertEquals(1263, g.valuationChemin(g.plusLongChemin()));
+    }
+
+    @Test
+    void testVoisinsApresModificationEtTailleMaximale() {
+        Graphe g = new GrapheBinaire(70);
+        g.ajouterArete(3, 66, 2);
+        g.ajouterArete(3, 1, 4);
+        assertEquals(1, g.voisin(3, 0));
+        assertEquals(2, g.poidsVoisin(3, 1));
+        g.ajouterArete(3, 40, 5);
+        g.supprimerArete(1, 3);
+        assertEquals(2, g.degre(3));
+        assertEquals(40, g.voisin(3, 0));
+        assertEquals(5, g.poidsVoisin(3, 0));
+        assertEquals(0, g.degre(1));
+
+        assertThrows(IllegalArgumentException.class, () -> new GrapheBinaire(GrapheBinaire.NB_SOMMETS_MAX + 1));
+        assertThrows(IllegalArgumentException.class, () -> new GrapheBinaire(-1));
+    }
+}
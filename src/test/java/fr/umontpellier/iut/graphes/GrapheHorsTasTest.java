@@ -0,0 +1,210 @@
+package fr.umontpellier.iut.graphes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrapheHorsTasTest {
+
+    private static Graphe grapheAleatoire(int n, int nbAretes, long graine) {
+        Random r = new Random(graine);
+        Graphe g = new Graphe(n);
+        for (int k = 0; k < nbAretes; k++) {
+            int u = r.nextInt(n);
+            int v = r.nextInt(n);
+            if (u != v) g.ajouterArete(u, v, 1 + r.nextInt(8));
+        }
+        return g;
+    }
+
+    @Test
+    void testMemesResultatsQueLeGrapheRecopie() {
+        Graphe g = grapheAleatoire(40, 45, 3);
+        GrapheHorsTas h = new GrapheHorsTas(g);
+        assertEquals(g, h);
+        assertEquals(g.empreinte(), h.empreinte());
+        assertEquals(g.toString(), h.toString());
+        assertEquals(g.nbAretes(), h.nbAretes());
+        assertEquals(g.nbSommetsDeDegreImpair(), h.nbSommetsDeDegreImpair());
+        assertEquals(g.nbSommetsIsoles(), h.nbSommetsIsoles());
+        assertEquals(g.nbCC(), h.nbCC());
+        assertEquals(g.calculerClassesDeConnexite(), h.calculerClassesDeConnexite());
+        for (int u = 0; u < g.nbSommets(); u++) {
+            assertEquals(g.voisins(u), h.voisins(u));
+            for (int v = 0; v < g.nbSommets(); v++) {
+                assertEquals(g.poidsArete(u, v), h.poidsArete(u, v));
+                assertEquals(g.memeClasse(u, v), h.memeClasse(u, v));
+                if (g.existeArete(u, v)) assertEquals(g.estUnIsthme(u, v), h.estUnIsthme(u, v));
+            }
+        }
+        Graphe petit = grapheAleatoire(12, 20, 4);
+        assertEquals(new RecherchePlusLongChemin(petit).calculer(), new RecherchePlusLongChemin(new GrapheHorsTas(petit)).calculer());
+    }
+
+    @Test
+    void testLectureSeule() {
+        GrapheHorsTas h = new GrapheHorsTas(grapheAleatoire(10, 12, 5));
+        Graphe g = Graphe.copie(h);
+        assertThrows(UnsupportedOperationException.class, () -> h.ajouterArete(0, 1, 3));
+        assertThrows(UnsupportedOperationException.class, () -> h.supprimerArete(h.voisin(0, 0), 0));
+        assertEquals(g, h);
+        assertThrows(IllegalArgumentException.class, () -> new GrapheHorsTas(ByteBuffer.allocate(16).putInt(0, 3).putInt(4, 5)));
+    }
+
+    @Test
+    void testTamponsMalFormes() {
+        // 0 - 1 (2) et 1 - 2 (3) : n, m, débuts {0, 1, 3, 4}, voisins {1, 0, 2, 1}, longueurs {2, 2, 3, 3}
+        Graphe g = new Graphe(3);
+        g.ajouterArete(0, 1, 2);
+        g.ajouterArete(1, 2, 3);
+        assertEquals(g, new GrapheHorsTas(tamponModifie(g)).verifier());
+        // seuls l'en-tête et la taille sont vérifiés à la construction
+        new GrapheHorsTas(tamponModifie(g, 7, 2, 8, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GrapheHorsTas(tamponModifie(g, 2, 1))); // première liste décalée
+        assertThrows(IllegalArgumentException.class, () -> new GrapheHorsTas(tamponModifie(g, 5, 3))); // dernière liste incohérente avec m
+        assertThrows(IllegalArgumentException.class, () -> new GrapheHorsTas(tamponModifie(g, 3, 3, 4, 1)).verifier()); // débuts décroissants
+        assertThrows(IllegalArgumentException.class, () -> new GrapheHorsTas(tamponModifie(g, 6, 7)).verifier()); // voisin hors du graphe
+        assertThrows(IllegalArgumentException.class, () -> new GrapheHorsTas(tamponModifie(g, 7, 2, 8, 0)).verifier()); // voisins non triés
+        assertThrows(IllegalArgumentException.class, () -> new GrapheHorsTas(tamponModifie(g, 10, -2, 11, -2)).verifier()); // longueur négative
+        assertThrows(IllegalArgumentException.class, () -> new GrapheHorsTas(tamponModifie(g, 13, 4)).verifier()); // longueurs asymétriques
+        assertThrows(IllegalArgumentException.class, () -> new GrapheHorsTas(tamponModifie(g, 9, 0, 13, 2)).verifier()); // arête à sens unique
+    }
+
+    /**
+     * @param modifications des paires (position de l'entier, nouvelle valeur)
+     * @return le tampon de g au format de GrapheHorsTas, avec les entiers indiqués remplacés
+     */
+    private static ByteBuffer tamponModifie(Graphe g, int... modifications) {
+        ByteBuffer tampon = GrapheHorsTas.encoder(g, ByteBuffer.allocate(GrapheHorsTas.taille(g))).flip();
+        for (int k = 0; k < modifications.length; k += 2) tampon.putInt(4 * modifications[k], modifications[k + 1]);
+        return tampon;
+    }
+
+    @Test
+    void testPartageEntreFilsDExecution() {
+        // 100 000 sommets : les requêtes sont faites en même temps par plusieurs tâches
+        Graphe g = grapheAleatoire(100_000, 150_000, 11);
+        GrapheHorsTas h = new GrapheHorsTas(g);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ArrayList<Integer> degres = pool.submit(() -> {
+                ArrayList<Integer> res = new ArrayList<>();
+                IntStream.range(0, h.nbSommets()).parallel()
+                        .map(v -> h.memeClasse(v, 0) ? h.degre(v) : 0)
+                        .forEachOrdered(res::add);
+                return res;
+            }).get();
+            for (int v = 0; v < g.nbSommets(); v++) assertEquals(g.memeClasse(v, 0) ? g.degre(v) : 0, degres.get(v));
+            assertEquals(g.indexIsthmes().nbIsthmes(), pool.submit(() -> h.indexIsthmes().nbIsthmes()).get());
+
+            // 200 classes de 5 sommets (un cycle et une corde) : leurs plus longs chemins sont calculés en même temps
+            Graphe petites = new Graphe(1000);
+            for (int d = 0; d < 1000; d += 5) {
+                for (int k = 0; k < 5; k++) petites.ajouterArete(d + k, d + (k + 1) % 5, 1 + (d + k) % 7);
+                petites.ajouterArete(d, d + 2, 3);
+            }
+            GrapheHorsTas hp = new GrapheHorsTas(petites);
+            ArrayList<Integer> valuations = pool.submit(() -> {
+                ArrayList<Integer> res = new ArrayList<>();
+                IntStream.range(0, hp.nbSommets()).parallel()
+                        .map(v -> hp.valuationChemin(hp.plusLongCheminDeLaClasse(v)))
+                        .forEachOrdered(res::add);
+                return res;
+            }).get();
+            for (int v = 0; v < petites.nbSommets(); v++) {
+                assertEquals(petites.valuationChemin(petites.plusLongCheminDeLaClasse(v)), valuations.get(v));
+            }
+        } catch (Exception e) {
+            fail(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testEcrireEtChargerUnFichier(@TempDir Path dossier) throws IOException {
+        Graphe g = grapheAleatoire(500, 800, 13);
+        Path fichier = dossier.resolve("reseau.graphe");
+        FichierGraphe.ecrire(g, fichier);
+        assertEquals(4L * (2 + 2 + 501 + 4 * g.nbAretes()), Files.size(fichier));
+        GrapheHorsTas charge = FichierGraphe.charger(fichier);
+        assertEquals(g, charge);
+        assertEquals(g.nbCC(), charge.nbCC());
+        assertEquals(g, Graphe.copie(charge));
+        GrapheHorsTas sansVerification = FichierGraphe.charger(fichier, false);
+        assertEquals(g.nbAretes(), sansVerification.nbAretes());
+        assertEquals(g.nbSommetsDeDegreImpair(), sansVerification.nbSommetsDeDegreImpair());
+        assertEquals(g.hashCode(), sansVerification.hashCode());
+        assertEquals(g.nbCC(), sansVerification.nbCC());
+
+        FichierGraphe.ecrire(new Graphe(0), fichier);
+        assertEquals(0, FichierGraphe.charger(fichier).nbSommets());
+
+        Files.write(fichier, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> FichierGraphe.charger(fichier));
+        FichierGraphe.ecrire(g, fichier);
+        byte[] tronque = Arrays.copyOf(Files.readAllBytes(fichier), 1000);
+        Files.write(fichier, tronque);
+        assertThrows(IOException.class, () -> FichierGraphe.charger(fichier));
+    }
+
+    @Test
+    void testImporterEtExporterDesListesDAretes(@TempDir Path dossier) throws IOException {
+        Graphe g = grapheAleatoire(3000, 5000, 17);
+        Path fichier = dossier.resolve("aretes");
+        for (FluxAretes.Format format : FluxAretes.Format.values()) {
+            FluxAretes.exporter(g, fichier, format);
+            assertEquals(g, FluxAretes.importer(fichier, format));
+        }
+        assertEquals("Graphe à 3000 sommets et " + g.nbAretes() + " arêtes", g.toString());
+
+        // fichier écrit à la main : en-tête de colonnes, longueur absente, fins de ligne Windows
+        Files.writeString(fichier, "u,v,longueur\r\n0,3,2\r\n3,1\r\n\r\n");
+        Graphe lu = FluxAretes.importer(fichier, FluxAretes.Format.CSV);
+        assertEquals(4, lu.nbSommets());
+        assertEquals(2, lu.poidsArete(0, 3));
+        assertEquals(1, lu.poidsArete(1, 3));
+        Files.writeString(fichier, "graph {\n  \"2\" -- \"0\" [weight=5];\n  1;\n}\n");
+        assertEquals(5, FluxAretes.importer(fichier, FluxAretes.Format.DOT).poidsArete(0, 2));
+        Files.writeString(fichier, "2,2,1\n");
+        assertThrows(IOException.class, () -> FluxAretes.importer(fichier, FluxAretes.Format.CSV));
+
+        // signes et décimales refusés, avec le numéro de ligne
+        Files.writeString(fichier, "0,1,2\n1,-2,3\n");
+        IOException negatif = assertThrows(IOException.class, () -> FluxAretes.importer(fichier, FluxAretes.Format.CSV));
+        assertTrue(negatif.getMessage().contains("ligne 2"));
+        Files.writeString(fichier, "0\t1\t2.5\n");
+        IOException decimal = assertThrows(IOException.class, () -> FluxAretes.importer(fichier, FluxAretes.Format.TSV));
+        assertTrue(decimal.getMessage().contains("ligne 1"));
+        Files.writeString(fichier, "graph {\n  0 -- 1 [weight=-3];\n}\n");
+        assertThrows(IOException.class, () -> FluxAretes.importer(fichier, FluxAretes.Format.DOT));
+
+        // opérateurs DOT sans espaces, attributs quelconques, graphe orienté
+        Files.writeString(fichier, "digraph {\n  0--1 [weight=3];\n  1->2 [color=\"red-2.5\", weight=\"4\"];\n  2 [label=\"a--b\"];\n}\n");
+        Graphe dot = FluxAretes.importer(fichier, FluxAretes.Format.DOT);
+        assertEquals(3, dot.nbSommets());
+        assertEquals(3, dot.poidsArete(0, 1));
+        assertEquals(4, dot.poidsArete(1, 2));
+
+        // un en-tête qui contient des chiffres n'est pas une arête, et seul « sommets: n » donne le nombre de sommets
+        Files.writeString(fichier, "# generated 2024\nnode1,node2,weight\n0,1,2\n");
+        Graphe entete = FluxAretes.importer(fichier, FluxAretes.Format.CSV);
+        assertEquals(2, entete.nbSommets());
+        assertEquals(1, entete.nbAretes());
+        Files.writeString(fichier, "# sommets: 5\n0,1,2\n");
+        assertEquals(5, FluxAretes.importer(fichier, FluxAretes.Format.CSV).nbSommets());
+        Files.writeString(fichier, "0,1,abc\n");
+        assertThrows(IOException.class, () -> FluxAretes.importer(fichier, FluxAretes.Format.CSV));
+    }
+}
@@ -4,9 +4,13 @@ package fr.umontpellier.iut.graphes;
 import org.junit.jupiter.api.Test;
 
 import java.net.Inet4Address;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,8 +18,15 @@ public class GrapheTest {
 
     //ajouter controle des exceptions et boucles infinies
 
-    private static Graphe buildGraphe(int n, int[][] aretes){
-        Graphe res = new Graphe(n);
+    /**
+     * Représentation testée, redéfinie par les classes de test des autres représentations
+     */
+    protected Graphe nouveauGraphe(int n) {
+        return new Graphe(n);
+    }
+
+    private Graphe buildGraphe(int n, int[][] aretes){
+        Graphe res = nouveauGraphe(n);
         for(int i=0;i<aretes.length;i++){
             res.ajouterArete(aretes[i][0],aretes[i][1],aretes[i][2]);
         }
@@ -110,7 +121,7 @@ public class GrapheTest {
 
     @Test
     void testExisteArete() {
-        Graphe g = new Graphe(5);
+        Graphe g = nouveauGraphe(5);
         g.ajouterArete(1,2, 2);
         g.ajouterArete(2,3,2);
         g.ajouterArete(2,4,2);
@@ -123,7 +134,7 @@ public class GrapheTest {
     @Test
     void testVoisinsDeC() {
         // C est le sommet 2.
-        Graphe g = new Graphe(5);
+        Graphe g = nouveauGraphe(5);
         g.ajouterArete(1,2, 2);
         g.ajouterArete(2,3,2);
         g.ajouterArete(2,4,2);
@@ -202,7 +213,7 @@ public class GrapheTest {
 
     @Test
     void testGrapheCompletOrdre21() {
-        Graphe g = new Graphe(21);
+        Graphe g = nouveauGraphe(21);
         for (int i = 0; i < 21; i++) {
             for (int j = 0; j < 21; j++) {
                 if (i != j) g.ajouterArete(i, j, 1);
@@ -238,7 +249,7 @@ public class GrapheTest {
 
     @Test
     void testGrapheCompletOrdre10(){
-        Graphe g = new Graphe(10);
+        Graphe g = nouveauGraphe(10);
         for (int i = 0; i < 10; i++) {
             for (int j = 0; j < 10; j++) {
                 if (i != j) g.ajouterArete(i, j, 1);
@@ -366,8 +377,8 @@ public class GrapheTest {
         //TEST POSSEDE UN PARCOURS EULERIEN
         assertTrue(g.existeParcoursEulerien());
 
-        //TEST TAILLE PLUS LONG CHEMIN
-        assertEquals(11, g.plusLongChemin().size());
+        //TEST TAILLE PLUS LONG CHEMIN (le parcours eulérien emprunte les 11 arêtes)
+        assertEquals(12, g.plusLongChemin().size());
     }
 
     @Test
@@ -400,8 +411,675 @@ public class GrapheTest {
     void testPlusLongChemin_graphe_ordre9() {
         Graphe g = buildGraphe(9,new int[][]{{0,1,1},{0,4,3},{1,2,2},{1,3,1},{2,3,1},{2,7,5},{3,4,4},{4,5,5},{5,8,1},{5,6,3},{6,7,2},{6,8,7},{7,8,1}});
         //System.out.println(g.plusLongChemin());
-        ArrayList<Integer> resultat = new ArrayList<>(Arrays.asList(0,4,3,1,2,7,8,6,5,4));
+        ArrayList<Integer> resultat = new ArrayList<>(Arrays.asList(1,0,4,3,1,2,7,8,6,5,4));
         assertEquals(resultat, g.plusLongChemin());
-        //[0, 4, 3, 1, 2, 7, 8, 6, 5, 4]*/
+        assertEquals(32, g.valuationChemin(g.plusLongChemin()));
+    }
+
+    /**
+     * Vérifie que la liste de sommets est bien un chemin du graphe qui n'emprunte jamais deux fois la même arête
+     */
+    private static boolean estUnChemin(Graphe g, List<Integer> chemin) {
+        HashSet<List<Integer>> aretes = new HashSet<>();
+        for (int i = 0; i < chemin.size() - 1; i++) {
+            int u = chemin.get(i);
+            int v = chemin.get(i + 1);
+            if (!g.existeArete(u, v) || !aretes.add(Arrays.asList(Math.min(u, v), Math.max(u, v)))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Valuation du plus long chemin par énumération naïve (pour de petits graphes)
+     */
+    private static int plusLongCheminNaif(Graphe g) {
+        int n = g.nbSommets();
+        int max = 0;
+        for (int s = 0; s < n; s++) max = Math.max(max, plusLongCheminNaif(g, s, new boolean[n][n]));
+        return max;
+    }
+
+    private static int plusLongCheminNaif(Graphe g, int s, boolean[][] utilisees) {
+        int max = 0;
+        for (int v : g.voisins(s)) {
+            if (!utilisees[s][v]) {
+                utilisees[s][v] = utilisees[v][s] = true;
+                max = Math.max(max, g.poidsArete(s, v) + plusLongCheminNaif(g, v, utilisees));
+                utilisees[s][v] = utilisees[v][s] = false;
+            }
+        }
+        return max;
+    }
+
+    @Test
+    void testPlusLongCheminCommeEnumerationNaive() {
+        Random r = new Random(42);
+        for (int essai = 0; essai < 50; essai++) {
+            int n = 3 + r.nextInt(6);
+            Graphe g = nouveauGraphe(n);
+            for (int k = 0; k < n + r.nextInt(n); k++) {
+                int u = r.nextInt(n);
+                int v = r.nextInt(n);
+                if (u != v) g.ajouterArete(u, v, 1 + r.nextInt(8));
+            }
+            ArrayList<Integer> chemin = g.plusLongChemin();
+            assertTrue(estUnChemin(g, chemin));
+            assertEquals(plusLongCheminNaif(g), g.valuationChemin(chemin));
+        }
+    }
+
+    @Test
+    void testPlusLongCheminReseau45Wagons() {
+        // réseau de 47 villes utilisant 45 wagons : des routes de longueur 1 à 4 entre villes proches
+        Random r = new Random(8);
+        Graphe g = nouveauGraphe(47);
+        int nbWagons = 0;
+        while (nbWagons < 45) {
+            int u = r.nextInt(42);
+            int v = u + 1 + r.nextInt(4);
+            int longueur = Math.min(1 + r.nextInt(4), 45 - nbWagons);
+            if (!g.existeArete(u, v)) {
+                g.ajouterArete(u, v, longueur);
+                nbWagons += longueur;
+            }
+        }
+        ArrayList<Integer> chemin = assertTimeoutPreemptively(Duration.ofSeconds(2), g::plusLongChemin);
+        assertTrue(estUnChemin(g, chemin));
+    }
+
+    @Test
+    void testGrapheCreuxDe200000Sommets() {
+        // une matrice d'adjacence de cette taille ne pourrait pas être allouée
+        int n = 200000;
+        Graphe g = new Graphe(n);
+        for (int i = 0; i < n; i++) g.ajouterArete(i, (i + 1) % n, 1 + i % 8);
+        g.ajouterArete(0, n / 2, 3);
+
+        assertEquals(n, g.nbSommets());
+        assertEquals(n + 1, g.nbAretes());
+        assertEquals(Arrays.asList(1, n / 2, n - 1), g.voisins(0));
+        assertTrue(g.existeArete(n - 1, 0));
+        assertEquals(8, g.poidsArete(7, 8));
+
+        g.supprimerArete(0, n / 2);
+        assertFalse(g.existeArete(n / 2, 0));
+        assertEquals(0, g.poidsArete(0, n / 2));
+        assertEquals(n, g.nbAretes());
+    }
+
+    @Test
+    void testAjouterAreteExistanteMetAJourLaLongueur() {
+        Graphe g = buildGraphe(3, new int[][]{{0,1,2},{1,2,3}});
+        g.ajouterArete(1, 0, 5);
+        assertEquals(2, g.nbAretes());
+        assertEquals(5, g.poidsArete(0, 1));
+        assertEquals(5, g.poidsArete(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> g.ajouterArete(2, 2, 1));
+    }
+
+    @Test
+    void testParcoursDesVoisinsSansListe() {
+        Graphe g = buildGraphe(5, new int[][]{{2,4,3},{1,2,2},{2,3,1},{3,4,2}});
+        assertEquals(3, g.degre(2));
+        assertEquals(0, g.degre(0));
+
+        ArrayList<Integer> parIndice = new ArrayList<>();
+        int somme = 0;
+        for (int k = 0; k < g.degre(2); k++) {
+            parIndice.add(g.voisin(2, k));
+            somme += g.poidsVoisin(2, k);
+        }
+        assertEquals(g.voisins(2), parIndice);
+        assertEquals(6, somme);
+
+        ArrayList<Integer> parAction = new ArrayList<>();
+        g.forEachVoisin(2, parAction::add);
+        assertEquals(g.voisins(2), parAction);
+    }
+
+    @Test
+    void testMemeClasse() {
+        Graphe g = buildGraphe(6, new int[][]{{0,1,1},{1,2,1},{3,4,1}});
+        assertTrue(g.memeClasse(0, 2));
+        assertFalse(g.memeClasse(2, 3));
+        assertTrue(g.memeClasse(5, 5));
+        assertEquals(3, g.nbCC());
+
+        // l'index est recalculé après une modification du graphe
+        g.ajouterArete(2, 3, 1);
+        assertTrue(g.memeClasse(0, 4));
+        assertEquals(2, g.nbCC());
+        g.supprimerArete(1, 2);
+        assertFalse(g.memeClasse(0, 4));
+        assertEquals(3, g.nbCC());
+    }
+
+    @Test
+    void testConnexiteIncrementale() {
+        // les questions de connexité posées après chaque ajout restent cohérentes avec un parcours complet
+        Random r = new Random(3);
+        Graphe g = nouveauGraphe(60);
+        for (int k = 0; k < 80; k++) {
+            int u = r.nextInt(60);
+            int v = r.nextInt(60);
+            if (u == v) continue;
+            g.ajouterArete(u, v, 1);
+            if (k % 10 == 0) g.supprimerArete(u, v);
+            HashSet<Integer> cdc = new HashSet<>(Graphe.copie(g).calculerClasseDeConnexite(u));
+            for (int w = 0; w < 60; w++) assertEquals(cdc.contains(w), g.memeClasse(u, w));
+            assertEquals(g.calculerClassesDeConnexite().size(), g.nbCC());
+        }
+    }
+
+    @Test
+    void testIsthmesCommeSuppressionDeLArete() {
+        // une arête est un isthme si et seulement si sa suppression augmente le nombre de classes de connexité
+        Random r = new Random(11);
+        for (int essai = 0; essai < 20; essai++) {
+            Graphe g = nouveauGraphe(25);
+            for (int k = 0; k < 30; k++) {
+                int u = r.nextInt(25);
+                int v = r.nextInt(25);
+                if (u != v) g.ajouterArete(u, v, 1);
+            }
+            int nbIsthmes = 0;
+            for (int u = 0; u < 25; u++) {
+                for (int v : g.voisins(u)) {
+                    Graphe h = Graphe.copie(g);
+                    h.supprimerArete(u, v);
+                    boolean attendu = h.nbCC() > g.nbCC();
+                    assertEquals(attendu, g.estUnIsthme(u, v));
+                    if (attendu && u < v) nbIsthmes++;
+                }
+            }
+            assertEquals(nbIsthmes, g.indexIsthmes().nbIsthmes());
+        }
+    }
+
+    @Test
+    void testMarquerPuisAnnulerRestaureLeGraphe() {
+        Graphe g = buildGraphe(6, new int[][]{{0,1,2},{1,2,3},{2,0,1},{3,4,5}});
+        String avant = g.toString();
+
+        int marque = g.marquer();
+        g.supprimerArete(0, 1);
+        g.supprimerArete(3, 4);
+        g.ajouterArete(2, 5, 4);
+        g.ajouterArete(1, 2, 7);
+        int interne = g.marquer();
+        g.ajouterArete(4, 5, 1);
+        assertFalse(g.memeClasse(3, 5));
+        assertTrue(g.memeClasse(0, 5));
+        g.annuler(interne);
+        assertFalse(g.existeArete(4, 5));
+        assertEquals(7, g.poidsArete(2, 1));
+        g.annuler(marque);
+
+        assertEquals(avant, g.toString());
+        assertEquals(4, g.nbAretes());
+        assertTrue(g.memeClasse(3, 4));
+        assertFalse(g.memeClasse(0, 5));
+        assertEquals(3, g.nbCC());
+        assertThrows(IllegalStateException.class, () -> g.annuler(marque));
+    }
+
+    @Test
+    void testValiderConserveLesModifications() {
+        Graphe g = buildGraphe(4, new int[][]{{0,1,1},{2,3,1}});
+        int marque = g.marquer();
+        int interne = g.marquer();
+        g.ajouterArete(1, 2, 3);
+        g.valider(interne);
+        assertTrue(g.memeClasse(0, 3));
+        g.annuler(marque);
+        assertFalse(g.existeArete(1, 2));
+        assertFalse(g.memeClasse(0, 3));
+
+        g.valider(g.marquer());
+        g.ajouterArete(1, 2, 3);
+        assertTrue(g.existeArete(1, 2));
+    }
+
+    @Test
+    void testMarquesPerimeesRefusees() {
+        Graphe g = buildGraphe(4, new int[][]{{0,1,1},{2,3,1}});
+        Graphe autre = buildGraphe(4, new int[][]{{0,1,1}});
+        int validee = g.marquer();
+        g.valider(validee);
+        int marque = g.marquer();
+        g.supprimerArete(0, 1);
+        assertThrows(IllegalStateException.class, () -> g.annuler(validee));
+        assertThrows(IllegalStateException.class, () -> autre.annuler(marque));
+        int interne = g.marquer();
+        g.supprimerArete(2, 3);
+        assertThrows(IllegalStateException.class, () -> g.valider(marque)); // la marque interne est encore ouverte
+        g.annuler(interne);
+        g.annuler(marque);
+        assertEquals(buildGraphe(4, new int[][]{{0,1,1},{2,3,1}}), g);
+        assertEquals(1, autre.nbAretes());
+    }
+
+    @Test
+    void testCompteursMaintenusAuFilDesModifications() {
+        Random r = new Random(3);
+        int n = 12;
+        Graphe g = nouveauGraphe(n);
+        int marque = -1;
+        for (int etape = 0; etape < 400; etape++) {
+            int u = r.nextInt(n);
+            int v = r.nextInt(n);
+            if (etape % 50 == 10) marque = g.marquer();
+            if (etape % 50 == 40) g.annuler(marque);
+            if (u == v) continue;
+            if (r.nextInt(3) == 0) g.supprimerArete(u, v);
+            else g.ajouterArete(u, v, 1 + r.nextInt(5));
+
+            int somme = 0, impairs = 0, isoles = 0;
+            for (int x = 0; x < n; x++) {
+                assertEquals(g.voisins(x).size(), g.degre(x));
+                somme += g.degre(x);
+                if (g.degre(x) % 2 == 1) impairs++;
+                if (g.degre(x) == 0) isoles++;
+            }
+            assertEquals(somme / 2, g.nbAretes());
+            assertEquals(impairs, g.nbSommetsDeDegreImpair());
+            assertEquals(isoles, g.nbSommetsIsoles());
+            assertEquals(g.nbAretes() == n - g.nbCC(), g.estUneForet());
+        }
+    }
+
+    @Test
+    void testEstUneForet() {
+        assertTrue(buildGraphe(6, new int[][]{{0,1,1},{1,2,1},{3,4,1}}).estUneForet());
+        assertTrue(buildGraphe(3, new int[][]{}).estUneForet());
+        assertFalse(buildGraphe(6, new int[][]{{0,1,1},{1,2,1},{2,0,1},{3,4,1}}).estUneForet());
+    }
+
+    @Test
+    void testParcoursEulerienEmprunteChaqueAreteUneFois() {
+        Random r = new Random(11);
+        for (int essai = 0; essai < 30; essai++) {
+            // réunion de cycles aléatoires passant tous par le sommet 0 : le graphe est eulérien
+            int n = 4 + r.nextInt(40);
+            Graphe g = nouveauGraphe(n);
+            for (int c = 0; c < 1 + r.nextInt(4); c++) {
+                int precedent = 0;
+                for (int k = 0; k < 3 + r.nextInt(6); k++) {
+                    int v = r.nextInt(n);
+                    if (v == precedent || g.existeArete(precedent, v)) continue;
+                    g.ajouterArete(precedent, v, 1 + r.nextInt(5));
+                    precedent = v;
+                }
+                if (precedent != 0 && !g.existeArete(precedent, 0)) g.ajouterArete(precedent, 0, 1);
+            }
+            if (!g.existeParcoursEulerien()) {
+                assertEquals(0, g.parcoursEulerien().length);
+                continue;
+            }
+            int[] parcours = g.parcoursEulerien();
+            assertEquals(g.nbAretes() + 1, parcours.length);
+            HashSet<List<Integer>> empruntees = new HashSet<>();
+            for (int k = 0; k + 1 < parcours.length; k++) {
+                int u = Math.min(parcours[k], parcours[k + 1]);
+                int v = Math.max(parcours[k], parcours[k + 1]);
+                assertTrue(g.existeArete(u, v));
+                assertTrue(empruntees.add(List.of(u, v)));
+            }
+        }
+    }
+
+    @Test
+    void testPlusLongCheminDUnGrapheEulerienDense() {
+        // la recherche exhaustive serait hors de portée sur un graphe complet de 31 sommets (465 arêtes)
+        Graphe g = nouveauGraphe(31);
+        for (int i = 0; i < 31; i++) {
+            for (int j = i + 1; j < 31; j++) g.ajouterArete(i, j, 1 + (i + j) % 3);
+        }
+        ArrayList<Integer> chemin = assertTimeoutPreemptively(Duration.ofSeconds(1), g::plusLongChemin);
+        assertEquals(g.nbAretes() + 1, chemin.size());
+        assertTrue(estUnChemin(g, chemin));
+        assertArrayEquals(g.parcoursEulerien(), chemin.stream().mapToInt(Integer::intValue).toArray());
+        assertEquals(0, buildGraphe(4, new int[][]{{0,1,1},{0,2,1},{0,3,1}}).parcoursEulerien().length);
+    }
+
+    @Test
+    void testArbreDesBlocs() {
+        // deux triangles reliés par l'isthme 2-3, et l'arête pendante 5-6
+        Graphe g = buildGraphe(8, new int[][]{{0,1,1},{1,2,1},{2,0,1},{2,3,4},{3,4,1},{4,5,1},{5,3,1},{5,6,2}});
+        ArbreDesBlocs blocs = new ArbreDesBlocs(g);
+        assertEquals(4, blocs.nbBlocs());
+        assertEquals(blocs.bloc(0), blocs.bloc(2));
+        assertEquals(blocs.bloc(3), blocs.bloc(5));
+        assertNotEquals(blocs.bloc(2), blocs.bloc(3));
+        assertNotEquals(blocs.bloc(5), blocs.bloc(6));
+        int b = blocs.bloc(4);
+        assertEquals(2, blocs.nbPonts(b));
+        assertEquals(3, blocs.pontSommet(b, 0));
+        assertEquals(2, blocs.pontVoisin(b, 0));
+        assertEquals(4, blocs.pontLongueur(b, 0));
+        assertEquals(5, blocs.pontSommet(b, 1));
+        assertEquals(0, blocs.nbPonts(blocs.bloc(7)));
+    }
+
+    @Test
+    void testPlusLongCheminAvecIsthmesCommeEnumerationNaive() {
+        // cycles et arêtes pendantes greffés les uns aux autres : beaucoup d'isthmes et de petits blocs
+        Random r = new Random(5);
+        for (int essai = 0; essai < 60; essai++) {
+            int n = 6 + r.nextInt(9);
+            Graphe g = nouveauGraphe(n);
+            int v = 1;
+            while (v < n) {
+                int base = r.nextInt(v);
+                int longueur = Math.min(1 + r.nextInt(3), n - v);
+                int precedent = base;
+                for (int k = 0; k < longueur; k++, v++) {
+                    g.ajouterArete(precedent, v, 1 + r.nextInt(4));
+                    precedent = v;
+                }
+                if (longueur > 1 && r.nextBoolean()) g.ajouterArete(precedent, base, 1 + r.nextInt(4));
+            }
+            ArrayList<Integer> chemin = g.plusLongChemin();
+            assertTrue(estUnChemin(g, chemin));
+            assertEquals(plusLongCheminNaif(g), g.valuationChemin(chemin));
+        }
+    }
+
+    @Test
+    void testPlusLongCheminDUnGrandArbre() {
+        // dans un arbre, le plus long chemin est le diamètre
+        Random r = new Random(13);
+        int n = 3000;
+        Graphe g = new Graphe(n);
+        for (int v = 1; v < n; v++) g.ajouterArete(v, Math.max(0, v - 1 - r.nextInt(5)), 1 + r.nextInt(9));
+        ArrayList<Integer> chemin = assertTimeoutPreemptively(Duration.ofSeconds(2), g::plusLongChemin);
+        assertTrue(estUnChemin(g, chemin));
+        int[] distances = distancesDansUnArbre(g, chemin.get(0));
+        int diametre = 0;
+        for (int d : distancesDansUnArbre(g, indiceDuMax(distances))) diametre = Math.max(diametre, d);
+        assertEquals(diametre, g.valuationChemin(chemin));
+    }
+
+    private static int[] distancesDansUnArbre(Graphe g, int s) {
+        int[] distances = new int[g.nbSommets()];
+        Arrays.fill(distances, -1);
+        distances[s] = 0;
+        ArrayList<Integer> file = new ArrayList<>(List.of(s));
+        for (int i = 0; i < file.size(); i++) {
+            int x = file.get(i);
+            for (int k = 0; k < g.degre(x); k++) {
+                int y = g.voisin(x, k);
+                if (distances[y] < 0) {
+                    distances[y] = distances[x] + g.poidsVoisin(x, k);
+                    file.add(y);
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static int indiceDuMax(int[] t) {
+        int res = 0;
+        for (int i = 1; i < t.length; i++) if (t[i] > t[res]) res = i;
+        return res;
+    }
+
+    @Test
+    void testPlusLongCheminParalleleCommeSequentiel() {
+        Random r = new Random(17);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int essai = 0; essai < 40; essai++) {
+                // plusieurs classes de connexité, avec ou sans isthmes
+                int nbClasses = 1 + r.nextInt(4);
+                Graphe g = nouveauGraphe(10 * nbClasses);
+                for (int c = 0; c < nbClasses; c++) {
+                    for (int k = 0; k < 10 + r.nextInt(8); k++) {
+                        int u = 10 * c + r.nextInt(10);
+                        int v = 10 * c + r.nextInt(10);
+                        if (u != v) g.ajouterArete(u, v, 1 + r.nextInt(2));
+                    }
+                }
+                ArrayList<Integer> sequentiel = g.plusLongChemin();
+                assertEquals(sequentiel, new RecherchePlusLongChemin(g).calculerEnParallele(pool));
+                assertEquals(sequentiel, g.plusLongCheminParallele());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testPlusLongCheminEnTempsLimite() {
+        // graphe eulérien : la recherche aboutit tout de suite
+        Graphe eulerien = nouveauGraphe(21);
+        for (int i = 0; i < 21; i++) {
+            for (int j = i + 1; j < 21; j++) eulerien.ajouterArete(i, j, 1 + (i * j) % 4);
+        }
+        ResultatChemin resultat = eulerien.plusLongCheminEnTempsLimite(Duration.ofSeconds(5));
+        assertTrue(resultat.estOptimal());
+        assertEquals(eulerien.plusLongChemin(), resultat.getChemin());
+
+        // 20 sommets de degré impair : la recherche exhaustive ne finit pas dans le temps imparti
+        Graphe complet = nouveauGraphe(20);
+        for (int i = 0; i < 20; i++) {
+            for (int j = i + 1; j < 20; j++) complet.ajouterArete(i, j, 1 + (i * j) % 4);
+        }
+        resultat = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> complet.plusLongCheminEnTempsLimite(Duration.ofMillis(50)));
+        assertFalse(resultat.estOptimal());
+        assertTrue(estUnChemin(complet, resultat.getChemin()));
+        int valeur = 0;
+        for (int k = 0; k + 1 < resultat.getChemin().size(); k++) {
+            valeur += complet.poidsArete(resultat.getChemin().get(k), resultat.getChemin().get(k + 1));
+        }
+        assertEquals(resultat.getValeur(), valeur);
+        assertTrue(valeur > 0);
+
+        // fil interrompu : on rend la main sans rien prouver, et le statut d'interruption est conservé
+        Thread.currentThread().interrupt();
+        try {
+            assertFalse(complet.plusLongCheminEnTempsLimite(Duration.ofSeconds(5)).estOptimal());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void testPlusLongCheminApproche() {
+        Random r = new Random(23);
+        for (int essai = 0; essai < 40; essai++) {
+            int n = 6 + r.nextInt(8);
+            Graphe g = nouveauGraphe(n);
+            for (int k = 0; k < 2 * n; k++) {
+                int u = r.nextInt(n);
+                int v = r.nextInt(n);
+                if (u != v) g.ajouterArete(u, v, 1 + r.nextInt(4));
+            }
+            ResultatChemin approche = g.plusLongCheminApproche();
+            int exacte = g.valuationChemin(g.plusLongChemin());
+            assertTrue(estUnChemin(g, approche.getChemin()));
+            assertEquals(g.valuationChemin(approche.getChemin()), approche.getValeur());
+            assertTrue(approche.getValeur() <= exacte);
+            assertTrue(exacte <= approche.getMajorant());
+        }
+
+        // grille 100 x 100 : 10000 sommets, la recherche exacte serait hors de portée
+        int cote = 100;
+        Graphe grille = new Graphe(cote * cote);
+        for (int i = 0; i < cote; i++) {
+            for (int j = 0; j < cote; j++) {
+                if (i + 1 < cote) grille.ajouterArete(i * cote + j, (i + 1) * cote + j, 1 + (i * j) % 3);
+                if (j + 1 < cote) grille.ajouterArete(i * cote + j, i * cote + j + 1, 1 + (i + j) % 3);
+            }
+        }
+        ResultatChemin approche = assertTimeoutPreemptively(Duration.ofSeconds(2), grille::plusLongCheminApproche);
+        assertTrue(estUnChemin(grille, approche.getChemin()));
+        assertEquals(grille.valuationChemin(approche.getChemin()), approche.getValeur());
+        assertTrue(approche.getValeur() >= 0.9 * approche.getMajorant());
+    }
+
+    @Test
+    void testPlusLongCheminApprocheDUneForet() {
+        Graphe chemin = buildGraphe(3, new int[][]{{0,1,5},{1,2,7}});
+        Graphe etoile = buildGraphe(5, new int[][]{{0,1,1},{0,2,2},{0,3,5},{0,4,2}});
+        Graphe arbre = buildGraphe(8, new int[][]{{0,1,3},{1,2,4},{1,3,1},{3,4,6},{3,5,2},{0,6,8},{6,7,1}});
+        for (Graphe g : List.of(chemin, etoile, arbre)) {
+            ResultatChemin approche = g.plusLongCheminApproche();
+            int plusLongueArete = 0;
+            for (int u = 0; u < g.nbSommets(); u++) {
+                for (int k = 0; k < g.degre(u); k++) plusLongueArete = Math.max(plusLongueArete, g.poidsVoisin(u, k));
+            }
+            assertTrue(estUnChemin(g, approche.getChemin()));
+            assertEquals(g.valuationChemin(approche.getChemin()), approche.getValeur());
+            assertTrue(approche.getValeur() >= plusLongueArete);
+            assertTrue(approche.getValeur() <= g.valuationChemin(g.plusLongChemin()));
+        }
+        assertEquals(12, chemin.plusLongCheminApproche().getValeur());
+    }
+
+    @Test
+    void testEmpreinteEtEgalite() {
+        Graphe g = buildGraphe(5, new int[][]{{0,1,2},{1,2,3},{2,3,1},{3,0,4}});
+        Graphe h = new GrapheBinaire(5);
+        h.ajouterArete(3, 0, 4);
+        h.ajouterArete(2, 3, 1);
+        h.ajouterArete(1, 2, 3);
+        h.ajouterArete(0, 1, 2);
+        assertEquals(g, h);
+        assertEquals(g.empreinte(), h.empreinte());
+        assertEquals(g.hashCode(), h.hashCode());
+        assertEquals(g, Graphe.copie(g));
+
+        long avant = g.empreinte();
+        g.ajouterArete(1, 2, 5);
+        assertNotEquals(avant, g.empreinte());
+        assertNotEquals(g, h);
+        g.ajouterArete(1, 2, 3);
+        assertEquals(avant, g.empreinte());
+
+        int marque = g.marquer();
+        g.supprimerArete(0, 1);
+        g.ajouterArete(2, 4, 6);
+        g.ajouterArete(3, 0, 1);
+        assertNotEquals(g, h);
+        g.annuler(marque);
+        assertEquals(avant, g.empreinte());
+        assertEquals(g, h);
+        assertNotEquals(g, buildGraphe(6, new int[][]{{0,1,2},{1,2,3},{2,3,1},{3,0,4}}));
+    }
+
+    @Test
+    void testCacheResultats() {
+        CacheResultats cache = new CacheResultats(2, 100);
+        Graphe g = buildGraphe(5, new int[][]{{0,1,2},{1,2,3},{2,3,1},{3,0,4},{3,4,2}});
+        ArrayList<Integer> chemin = cache.plusLongChemin(g);
+        assertEquals(new RecherchePlusLongChemin(g).calculer(), chemin);
+        assertEquals(0, cache.nbSucces());
+        assertEquals(1, cache.nbEchecs());
+
+        // un graphe égal, construit à part, retrouve le résultat ; modifier la liste renvoyée est sans effet
+        chemin.clear();
+        Graphe h = Graphe.copie(g);
+        assertEquals(g.plusLongChemin(), cache.plusLongChemin(h));
+        assertEquals(1, cache.nbSucces());
+
+        // un graphe modifié n'est plus reconnu, et l'ancien résultat reste disponible
+        h.ajouterArete(1, 4, 7);
+        assertEquals(h.plusLongChemin(), cache.plusLongChemin(h));
+        assertEquals(2, cache.nbEchecs());
+        assertEquals(g.plusLongChemin(), cache.plusLongChemin(g));
+        assertEquals(2, cache.nbGraphes());
+
+        // au-delà de deux graphes, le moins récemment interrogé (h) est oublié
+        cache.plusLongChemin(buildGraphe(3, new int[][]{{0,1,1}}));
+        assertEquals(2, cache.nbGraphes());
+        long echecs = cache.nbEchecs();
+        cache.plusLongChemin(g);
+        cache.plusLongChemin(h);
+        assertEquals(echecs + 1, cache.nbEchecs());
+
+        // un graphe trop grand n'est pas conservé
+        cache.vider();
+        cache.plusLongChemin(nouveauGraphe(200));
+        assertEquals(0, cache.nbGraphes());
+    }
+
+    @Test
+    void testSontRelies() {
+        Graphe g = buildGraphe(7, new int[][]{{0,1,1},{1,2,1},{3,4,1},{5,6,1}});
+        int[][] paires = {{0,2},{2,3},{0,4},{5,6},{6,0},{3,3}};
+        assertArrayEquals(new boolean[]{true, false, false, true, false, true}, g.sontRelies(paires));
+        long empreinte = g.empreinte();
+        assertArrayEquals(new boolean[]{true, true, true, true, false, true}, g.sontRelies(paires, new int[][]{{2,4}}));
+        assertArrayEquals(new boolean[]{true, true, true, true, true, true}, g.sontRelies(paires, new int[][]{{1,4,3},{6,3,2}}));
+        assertEquals(empreinte, g.empreinte());
+        assertEquals(4, g.nbAretes());
+    }
+
+    @Test
+    void testVueSurcouche() {
+        Graphe a = buildGraphe(8, new int[][]{{0,1,2},{1,2,3},{4,5,1}});
+        Graphe b = buildGraphe(8, new int[][]{{1,3,4},{2,6,2},{1,2,7}});
+        long empreinteA = a.empreinte();
+        VueSurcouche vue = new VueSurcouche(a, b);
+        vue.ajouterArete(3, 4, 5);
+        vue.ajouterArete(0, 1, 2); // déjà dans a avec la même longueur
+        Graphe attendu = buildGraphe(8, new int[][]{{0,1,2},{1,2,3},{4,5,1},{1,3,4},{2,6,2},{3,4,5}});
+        assertEquals(attendu, vue);
+        assertEquals(attendu.toString(), vue.toString());
+        assertEquals(attendu.nbAretes(), vue.nbAretes());
+        assertEquals(attendu.nbSommetsDeDegreImpair(), vue.nbSommetsDeDegreImpair());
+        assertEquals(attendu.calculerClassesDeConnexite(), vue.calculerClassesDeConnexite());
+        assertEquals(new RecherchePlusLongChemin(attendu).calculer(), new RecherchePlusLongChemin(vue).calculer());
+        assertEquals(empreinteA, a.empreinte());
+        assertEquals(3, b.nbAretes());
+
+        assertThrows(UnsupportedOperationException.class, () -> vue.supprimerArete(1, 2));
+        assertThrows(UnsupportedOperationException.class, () -> vue.ajouterArete(2, 6, 9));
+        int marque = vue.marquer();
+        vue.supprimerArete(3, 4);
+        vue.ajouterArete(0, 7, 1);
+        assertFalse(vue.existeArete(4, 3));
+        vue.annuler(marque);
+        assertEquals(attendu, vue);
+
+        assertEquals(buildGraphe(8, new int[][]{{0,1,2},{1,2,3},{4,5,1},{5,6,2}}), new VueSurcouche(a, new int[][]{{5,6,2}}));
+
+        // lectures alternées entre deux sommets dont les arêtes sont réparties sur plusieurs couches
+        VueSurcouche reunion = new VueSurcouche(a, b);
+        int[][] voisinsAttendus = {{0, 2, 3}, {1, 6}};
+        int[][] longueursAttendues = {{2, 3, 4}, {3, 2}};
+        for (int k = 0; k < 2; k++) {
+            for (int v = 1; v <= 2; v++) {
+                assertEquals(voisinsAttendus[v - 1][k], reunion.voisin(v, k));
+                assertEquals(longueursAttendues[v - 1][k], reunion.poidsVoisin(v, k));
+            }
+        }
+        assertEquals(3, reunion.degre(1));
+    }
+
+    @Test
+    void testPlusLongCheminDeLaClasseSuitLesAjouts() {
+        Graphe g = buildGraphe(6, new int[][]{{0,1,2},{1,2,3},{3,4,1}});
+        assertEquals(List.of(0, 1, 2), g.plusLongCheminDeLaClasse(1));
+        assertEquals(List.of(3, 4), g.plusLongCheminDeLaClasse(4));
+        assertTrue(g.plusLongCheminDeLaClasse(5).isEmpty());
+
+        Random r = new Random(29);
+        for (int essai = 0; essai < 20; essai++) {
+            Graphe h = new Graphe(14);
+            int max = 0;
+            for (int a = 0; a < 18; a++) {
+                int u = r.nextInt(14);
+                int v = r.nextInt(14);
+                if (u == v || h.existeArete(u, v)) continue;
+                h.ajouterArete(u, v, 1 + r.nextInt(6));
+                ArrayList<Integer> chemin = h.plusLongCheminDeLaClasse(v);
+                assertTrue(h.calculerClasseDeConnexite(u).containsAll(chemin));
+                max = Math.max(max, h.valuationChemin(chemin));
+                assertEquals(h.valuationChemin(h.plusLongChemin()), max);
+            }
+        }
     }
 }
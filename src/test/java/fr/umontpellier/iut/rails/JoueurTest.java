@@ -1,12 +1,16 @@
 package fr.umontpellier.iut.rails;
 
+import fr.umontpellier.iut.graphes.Graphe;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JoueurTest {
@@ -90,4 +94,131 @@ public class JoueurTest {
                 CouleurWagon.ROUGE));
         assertEquals(nbCartesWagon - 2, pileCartesWagon.size());
     }
+
+    @Test
+    void testReseauMisAJourALaCaptureDUneRoute() {
+        joueur2.getCartesWagon().add(CouleurWagon.BLEU);
+        joueur2.getCartesWagon().add(CouleurWagon.BLEU);
+        IndexPlateau index = jeu.getIndex();
+        int bruxelles = index.numero(index.getVilleByNom("Bruxelles"));
+        int frankfurt = index.numero(index.getVilleByNom("Frankfurt"));
+        assertEquals(0, jeu.getReseau(joueur2).nbAretes());
+
+        jeu.setInput("Bruxelles - Frankfurt", "BLEU", "BLEU");
+        joueur2.jouerTour();
+
+        assertEquals(2, jeu.getReseau(joueur2).poidsArete(bruxelles, frankfurt));
+        assertTrue(jeu.getReseau(joueur2).memeClasse(frankfurt, bruxelles));
+        assertEquals(0, jeu.getReseau(joueur1).nbAretes());
+
+        // le réseau renvoyé est une copie
+        jeu.getReseau(joueur2).supprimerArete(bruxelles, frankfurt);
+        assertEquals(2, jeu.getReseau(joueur2).poidsArete(bruxelles, frankfurt));
+
+        // une route attribuée sans passer par capturerRoute est aussi ajoutée au réseau, puis retirée
+        Route brestParis = index.getRouteByNom("Brest - Paris");
+        int brest = index.numero(brestParis.getVille1());
+        int paris = index.numero(brestParis.getVille2());
+        brestParis.setProprietaire(joueur1);
+        assertTrue(jeu.getReseau(joueur1).existeArete(brest, paris));
+        assertEquals(brestParis.getLongueur(), jeu.getPlusLongChemin(joueur1));
+        brestParis.setProprietaire(joueur2);
+        assertEquals(0, jeu.getReseau(joueur1).nbAretes());
+        assertEquals(0, jeu.getPlusLongChemin(joueur1));
+        assertTrue(jeu.getReseau(joueur2).existeArete(brest, paris));
+        assertReseauxCoherents();
+    }
+
+    @Test
+    void testGareAttribueeDirectementPriseEnCompteAuCalculDesScores() {
+        joueur1.getCartesWagon().add(CouleurWagon.BLEU);
+        joueur1.getCartesWagon().add(CouleurWagon.BLEU);
+        jeu.setInput("Bruxelles - Frankfurt", "BLEU", "BLEU");
+        joueur1.jouerTour();
+        jeu.getIndex().getVilleByNom("Bruxelles").setProprietaire(joueur2);
+        joueur2.getDestinations().add(new Destination("Bruxelles", "Frankfurt", 5));
+        int score = joueur2.getScore();
+
+        jeu.setInput("Bruxelles - Frankfurt");
+        jeu.calculerLesScores();
+
+        assertEquals(score + 5, joueur2.getScore());
+        assertReseauxCoherents();
+    }
+
+    /**
+     * Vérifie que le réseau de chaque joueur contient exactement les routes dont il est propriétaire
+     */
+    private void assertReseauxCoherents() {
+        IndexPlateau index = jeu.getIndex();
+        for (Joueur j : jeu.getJoueurs()) {
+            Graphe reseau = jeu.getReseau(j);
+            int nbAretes = 0;
+            for (int u = 0; u < index.nbVilles(); u++) {
+                for (int v = u + 1; v < index.nbVilles(); v++) {
+                    boolean possedee = false;
+                    for (Route r : index.getRoutesEntre(index.getVille(u), index.getVille(v))) {
+                        possedee |= r.getProprietaire() == j;
+                    }
+                    assertEquals(possedee, reseau.existeArete(u, v), j.getNom() + " : " + u + "-" + v);
+                    if (possedee) nbAretes++;
+                }
+            }
+            assertEquals(nbAretes, reseau.nbAretes());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDestinationRealiseeDansLEtatDuJeu() {
+        Destination d = new Destination("Bruxelles", "Frankfurt", 5);
+        joueur2.getDestinations().add(d);
+        joueur2.getCartesWagon().add(CouleurWagon.BLEU);
+        joueur2.getCartesWagon().add(CouleurWagon.BLEU);
+        HashMap<String, Object> avant = (HashMap<String, Object>) ((List<Object>) ((HashMap<String, Object>) joueur2.asPOJO()).get("destinations")).get(0);
+        assertFalse((boolean) avant.get("realisee"));
+
+        jeu.setInput("Bruxelles - Frankfurt", "BLEU", "BLEU");
+        joueur2.jouerTour();
+
+        HashMap<String, Object> apres = (HashMap<String, Object>) ((List<Object>) ((HashMap<String, Object>) joueur2.asPOJO()).get("destinations")).get(0);
+        assertTrue((boolean) apres.get("realisee"));
+        assertTrue(jeu.destinationRealisee(joueur2, d));
+        assertFalse(jeu.destinationRealisee(joueur1, d));
+    }
+
+    @Test
+    void testClassementEuropeanExpressMisAJourALaCapture() {
+        joueur2.getCartesWagon().add(CouleurWagon.BLEU);
+        joueur2.getCartesWagon().add(CouleurWagon.BLEU);
+        jeu.setInput("Bruxelles - Frankfurt", "BLEU", "BLEU");
+        joueur2.jouerTour();
+
+        assertEquals(2, jeu.getPlusLongChemin(joueur2));
+        assertEquals(0, jeu.getPlusLongChemin(joueur1));
+        List<Map<String, Object>> classement = jeu.getClassementEuropeanExpress();
+        assertEquals(4, classement.size());
+        assertEquals(joueur2.getNom(), classement.get(0).get("nom"));
+        assertEquals(2, classement.get(0).get("plusLongChemin"));
+        assertEquals(joueur1.getNom(), classement.get(1).get("nom"));
+    }
+
+    @Test
+    void testDestinationRealiseeGraceAUneGareAuCalculDesScores() {
+        joueur1.getCartesWagon().add(CouleurWagon.BLEU);
+        joueur1.getCartesWagon().add(CouleurWagon.BLEU);
+        jeu.setInput("Bruxelles - Frankfurt", "BLEU", "BLEU");
+        joueur1.jouerTour();
+        joueur2.getCartesWagon().add(CouleurWagon.ROUGE);
+        jeu.setInput("Bruxelles", "ROUGE");
+        joueur2.jouerTour();
+        joueur2.getDestinations().add(new Destination("Bruxelles", "Frankfurt", 5));
+        int score = joueur2.getScore();
+
+        jeu.setInput("Bruxelles - Frankfurt");
+        jeu.calculerLesScores();
+
+        assertEquals(score + 5, joueur2.getScore());
+        assertEquals(0, jeu.getReseau(joueur2).nbAretes());
+    }
 }